@@ -10,9 +10,16 @@ import me.devvy.leveled.listeners.monitors.PlayerJoinListeners;
 import me.devvy.leveled.listeners.monitors.PlayerNametags;
 import me.devvy.leveled.mobs.BossManager;
 import me.devvy.leveled.mobs.MobManager;
+import me.devvy.leveled.mobs.PetManager;
+import me.devvy.leveled.mobs.nametags.ProtocolLibNametagSender;
 import me.devvy.leveled.party.PartyManager;
+import me.devvy.leveled.profile.ExperienceLeaderboard;
+import me.devvy.leveled.profile.OfflineStatsIndex;
+import me.devvy.leveled.profile.ProfileLoader;
+import me.devvy.leveled.profile.ProfileStore;
 import me.devvy.leveled.player.ActionBarManager;
 import me.devvy.leveled.player.LeveledPlayerManager;
+import me.devvy.leveled.player.PlayerLevelGrid;
 import me.devvy.leveled.player.ScoreboardManager;
 import me.devvy.leveled.items.Recipes;
 import me.devvy.leveled.commands.*;
@@ -26,7 +33,10 @@ import org.bukkit.World;
 import org.bukkit.advancement.Advancement;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Iterator;
+import java.util.logging.Level;
 
 
 public final class Leveled extends JavaPlugin {
@@ -43,6 +53,8 @@ public final class Leveled extends JavaPlugin {
     private GlobalItemManager globalItemManager;
 
     private MobManager mobManager;
+    private PetManager petManager;
+    private PlayerLevelGrid playerLevelGrid;
     private BossManager bossManager;
     private LeveledPlayerManager playerManager;
     private GlobalDamageManager damageManager;
@@ -50,6 +62,11 @@ public final class Leveled extends JavaPlugin {
     private ActionBarManager actionBarManager;
     private PartyManager partyManager;
     private ScoreboardManager scoreboardManager;
+    private PlayerNametags playerNametags;
+    private ProfileStore profileStore;
+    private ProfileLoader profileLoader;
+    private OfflineStatsIndex statsIndex;
+    private ExperienceLeaderboard leaderboard;
 
     private Advancement enchantAdvancement;
 
@@ -69,6 +86,14 @@ public final class Leveled extends JavaPlugin {
         return this.mobManager;
     }
 
+    public PetManager getPetManager() {
+        return petManager;
+    }
+
+    public PlayerLevelGrid getPlayerLevelGrid() {
+        return playerLevelGrid;
+    }
+
     public LeveledPlayerManager getPlayerManager() {
         return playerManager;
     }
@@ -81,6 +106,26 @@ public final class Leveled extends JavaPlugin {
         return partyManager;
     }
 
+    public ProfileStore getProfileStore() {
+        return profileStore;
+    }
+
+    public ProfileLoader getProfileLoader() {
+        return profileLoader;
+    }
+
+    public OfflineStatsIndex getStatsIndex() {
+        return statsIndex;
+    }
+
+    public ExperienceLeaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    public PlayerNametags getPlayerNametags() {
+        return playerNametags;
+    }
+
     public BossManager getBossManager() {
         return bossManager;
     }
@@ -89,9 +134,32 @@ public final class Leveled extends JavaPlugin {
         return enchantAdvancement;
     }
 
+    /**
+     * Turns on per player mob nametags if they are enabled in the config, they need ProtocolLib to send the packets
+     */
+    private void setupPerViewerNametags() {
+
+        if (!getConfig().getBoolean("per-viewer-nametags.enabled"))
+            return;
+
+        if (getServer().getPluginManager().getPlugin("ProtocolLib") == null) {
+            getLogger().warning("per-viewer-nametags is enabled but ProtocolLib isn't installed, mobs will be renamed for everyone instead");
+            return;
+        }
+
+        mobManager.enablePerViewerNametags(
+                new ProtocolLibNametagSender(),
+                getConfig().getDouble("per-viewer-nametags.view-radius"),
+                getConfig().getInt("per-viewer-nametags.target-range"),
+                getConfig().getInt("per-viewer-nametags.max-updates-per-refresh")
+        );
+    }
+
     @Override
     public void onEnable() {
 
+        saveDefaultConfig();
+
         // First do some checks to make sure the server is setup right...
         // Can HP be really high?
         if (getServer().spigot().getSpigotConfig().getDouble("settings.attribute.maxHealth.max") < 2000000000){
@@ -127,6 +195,19 @@ public final class Leveled extends JavaPlugin {
             }
         }
 
+        // Player profiles have to be loaded before anything asks for them
+        try {
+            File profileFolder = new File(getDataFolder(), "profiles");
+            profileStore = new ProfileStore(profileFolder, getLogger(), getConfig().getLong("profiles.sync-interval-millis", ProfileStore.DEFAULT_SYNC_INTERVAL_MILLIS));
+            statsIndex = new OfflineStatsIndex(new File(profileFolder, "stats.idx"));
+        } catch (IOException e) {
+            getLogger().log(Level.SEVERE, "Could not load player profiles, refusing to start so that we don't overwrite them", e);
+            getServer().getPluginManager().disablePlugin(this);
+            return;
+        }
+        profileLoader = new ProfileLoader(this, profileStore);
+        leaderboard = new ExperienceLeaderboard(profileStore.getProfiles());
+
         enchantmentManager = new EnchantmentManager();
         customItemManager = new CustomItemManager();
         globalItemManager = new GlobalItemManager(this);
@@ -140,6 +221,7 @@ public final class Leveled extends JavaPlugin {
 
         // Listeners that change how natural progression works
         getServer().getPluginManager().registerEvents(new ProgressionModifyingListeners(), this);
+        getServer().getPluginManager().registerEvents(profileLoader, this);
         getServer().getPluginManager().registerEvents(playerManager, this);
         getServer().getPluginManager().registerEvents(damageManager, this);
         getServer().getPluginManager().registerEvents(globalItemManager, this);
@@ -151,10 +233,7 @@ public final class Leveled extends JavaPlugin {
         getServer().getPluginManager().registerEvents(new VanillaExperienceCancellingListeners(), this);
 
         // Listeners involving level capped gear
-        getServer().getPluginManager().registerEvents(new PlayerArmorListeners(this), this);
-        getServer().getPluginManager().registerEvents(new PlayerToolListeners(this), this);
-        getServer().getPluginManager().registerEvents(new EnchantmentListeners(), this);
-        getServer().getPluginManager().registerEvents(new BrewingListeners(), this);
+        getServer().getPluginManager().registerEvents(new LevelGateListeners(this), this);
         getServer().getPluginManager().registerEvents(new MiscEquipmentListeners(this), this);
 
         // Listeners involving custom enchantments
@@ -166,7 +245,8 @@ public final class Leveled extends JavaPlugin {
         getServer().getPluginManager().registerEvents(new PlayerChatListener(), this);
 
         // Listeners involving the scoreboard
-        getServer().getPluginManager().registerEvents(new PlayerNametags(this), this);
+        playerNametags = new PlayerNametags(this);
+        getServer().getPluginManager().registerEvents(playerNametags, this);
         getServer().getPluginManager().registerEvents(actionBarManager, this);
         getServer().getPluginManager().registerEvents(partyManager, this);
         getServer().getPluginManager().registerEvents(scoreboardManager, this);
@@ -175,8 +255,13 @@ public final class Leveled extends JavaPlugin {
         Recipes.registerRecipes(this);
 
         // Listeners involving mobs
+        playerLevelGrid = new PlayerLevelGrid(this);
+        getServer().getPluginManager().registerEvents(playerLevelGrid, this);
         mobManager = new MobManager(getServer().getWorlds());  // Initialize all worlds.
         getServer().getPluginManager().registerEvents(mobManager, this);
+        setupPerViewerNametags();
+        petManager = new PetManager(this);
+        getServer().getPluginManager().registerEvents(petManager, this);
         getServer().getPluginManager().registerEvents(new DamagePopupManager(this), this);
         getServer().getPluginManager().registerEvents(bossManager, this);
 
@@ -202,11 +287,30 @@ public final class Leveled extends JavaPlugin {
         getCommand("leveledgive").setTabCompleter(customItemCommand);
 
         getCommand("nametag").setExecutor(new NametagCommand(this));
+
+        LeveledCommand leveledCommand = new LeveledCommand(this);
+        getCommand("leveled").setExecutor(leveledCommand);
+        getCommand("leveled").setTabCompleter(leveledCommand);
     }
 
     @Override
     public void onDisable() {
+
+        // Get everyone's latest profile out to disk before the writer thread shuts down
+        if (profileStore != null) {
+            if (playerManager != null) {
+                // Hand out anything earned this tick first, otherwise it's lost
+                playerManager.getExperienceGrantAccumulator().flush();
+                playerManager.saveAllProfiles();
+            }
+            profileStore.close();
+        }
+
+        if (statsIndex != null)
+            statsIndex.close();
+
         getServer().resetRecipes();  // Reset the recipes TODO: Currently this wont support other plugins if we are unloading, figure out a way to make this work
-        enchantmentManager.unregisterCustomEnchantments();
+        if (enchantmentManager != null)
+            enchantmentManager.unregisterCustomEnchantments();
     }
 }
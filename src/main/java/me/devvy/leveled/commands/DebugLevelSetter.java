@@ -25,8 +25,7 @@ public class DebugLevelSetter implements CommandExecutor {
     private void resetPlayerProgress(Player player) {
 
         // First reset their level
-        player.setLevel(1);
-        player.setExp(0);
+        plugin.getPlayerManager().getLeveledPlayer(player).getExperience().setLevel(1);
 
         // Reset their advancements
         Iterator<Advancement> iterator = plugin.getServer().advancementIterator();
@@ -97,8 +96,7 @@ public class DebugLevelSetter implements CommandExecutor {
                 player.sendMessage(ChatColor.RED + "You can't go above the level cap!");
                 return true;
             }
-            player.setLevel(lvl);
-            player.setExp(0);
+            plugin.getPlayerManager().getLeveledPlayer(player).getExperience().setLevel(lvl);
             plugin.getPlayerManager().updateLeveledPlayerAttributes(player);
             player.sendMessage(ChatColor.GREEN + "You are now level " + lvl + "!");
             return true;
@@ -0,0 +1,152 @@
+package me.devvy.leveled.commands;
+
+import me.devvy.leveled.Leveled;
+import me.devvy.leveled.listeners.monitors.PlayerNametags;
+import me.devvy.leveled.mobs.MobManager;
+import me.devvy.leveled.mobs.nametags.PerViewerNametagRenderer;
+import me.devvy.leveled.player.AttributeUpdateScheduler;
+import me.devvy.leveled.player.ExperienceCurve;
+import me.devvy.leveled.profile.ExperienceLeaderboard;
+import me.devvy.leveled.profile.OfflineStats;
+import me.devvy.leveled.profile.ProfileLoader;
+import me.devvy.leveled.util.FormattingHelpers;
+import org.bukkit.ChatColor;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+
+public class LeveledCommand implements CommandExecutor, TabCompleter {
+
+    private static final int ENTRIES_PER_PAGE = 10;
+
+    private final Leveled plugin;
+
+    public LeveledCommand(Leveled plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+
+        if (args.length < 1) {
+            sender.sendMessage(ChatColor.RED + "Please specify an argument!");
+            return false;
+        }
+
+        switch (args[0].toLowerCase()) {
+
+            case "top":
+                handleTopSubCommand(sender, args);
+                return true;
+
+            case "mobs":
+                handleMobsSubCommand(sender);
+                return true;
+
+            case "players":
+                handlePlayersSubCommand(sender);
+                return true;
+
+            default:
+                sender.sendMessage(ChatColor.RED + "Unknown argument " + args[0]);
+                return false;
+        }
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        String[] subs = sender.isOp() ? new String[]{"top", "mobs", "players"} : new String[]{"top"};
+        if (args.length == 1) {
+            ArrayList<String> options = new ArrayList<>();
+            for (String sub : subs)
+                if (sub.startsWith(args[0].toLowerCase()))
+                    options.add(sub);
+            return options;
+        }
+        return Collections.emptyList();
+    }
+
+    private void handleTopSubCommand(CommandSender sender, String[] args) {
+
+        ExperienceLeaderboard leaderboard = plugin.getLeaderboard();
+        int pages = Math.max(1, (leaderboard.size() + ENTRIES_PER_PAGE - 1) / ENTRIES_PER_PAGE);
+
+        int page = 1;
+        if (args.length > 1) {
+            try {
+                page = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                sender.sendMessage(ChatColor.RED + args[1] + " is not a page number!");
+                return;
+            }
+        }
+        page = Math.min(Math.max(page, 1), pages);
+
+        sender.sendMessage(ChatColor.GRAY + "=====- " + ChatColor.GOLD + "Top Players " + ChatColor.GRAY + "(" + page + "/" + pages + ") -=====");
+        for (ExperienceLeaderboard.Entry entry : leaderboard.getEntries((page - 1) * ENTRIES_PER_PAGE + 1, ENTRIES_PER_PAGE))
+            sender.sendMessage(ChatColor.GOLD + "#" + entry.getRank() + " " + ChatColor.GREEN + getName(entry.getId()) + ChatColor.DARK_GREEN + " Lv. " + ExperienceCurve.getLevelFromTotalExperience(entry.getTotalExperience()) + ChatColor.GRAY + " - " + ChatColor.WHITE + FormattingHelpers.getFormattedInteger(entry.getTotalExperience()) + " XP");
+
+        if (page < pages)
+            sender.sendMessage(ChatColor.GRAY + "Type " + ChatColor.LIGHT_PURPLE + "/leveled top " + (page + 1) + ChatColor.GRAY + " for the next page");
+    }
+
+    /**
+     * Shows how the mob manager is doing, only reads numbers that are already kept so it is safe to run any time
+     */
+    private void handleMobsSubCommand(CommandSender sender) {
+
+        if (!sender.isOp()) {
+            sender.sendMessage(ChatColor.RED + "You don't have permission to use that command!");
+            return;
+        }
+
+        MobManager mobManager = plugin.getMobManager();
+        sender.sendMessage(ChatColor.GRAY + "=====- " + ChatColor.GOLD + "Mobs" + ChatColor.GRAY + " -=====");
+        sender.sendMessage(ChatColor.YELLOW + "Tracking " + FormattingHelpers.getFormattedInteger(mobManager.getEntityInstanceMap().size()) + " mobs.");
+        sender.sendMessage(ChatColor.YELLOW + "Last cleanup: " + mobManager.getLastLiveCount() + "/" + mobManager.getLastTrackedCount() + " tracked mobs were alive, " + mobManager.getEvictedCount() + " evicted since startup.");
+        sender.sendMessage(ChatColor.YELLOW + "Hydration: " + mobManager.getDeferredAtStartup() + " chunks deferred at startup, " + mobManager.getHydratedChunks() + " hydrated, " + mobManager.getQueuedChunks() + " queued.");
+        sender.sendMessage(ChatColor.YELLOW + "Nametags: " + FormattingHelpers.getFormattedInteger(mobManager.getNametagRenderer().getSentUpdates()) + " renamed, " + FormattingHelpers.getFormattedInteger(mobManager.getNametagRenderer().getSuppressedUpdates()) + " skipped (unchanged or batched).");
+
+        PerViewerNametagRenderer perViewerNametags = mobManager.getPerViewerNametags();
+        if (perViewerNametags != null)
+            sender.sendMessage(ChatColor.YELLOW + "Per player nametags: " + FormattingHelpers.getFormattedInteger(perViewerNametags.getSentUpdates()) + " sent, " + FormattingHelpers.getFormattedInteger(perViewerNametags.getDeferredUpdates()) + " deferred by the rate limit.");
+    }
+
+    /**
+     * Shows how the player side of things is doing, only reads numbers that are already kept
+     */
+    private void handlePlayersSubCommand(CommandSender sender) {
+
+        if (!sender.isOp()) {
+            sender.sendMessage(ChatColor.RED + "You don't have permission to use that command!");
+            return;
+        }
+
+        AttributeUpdateScheduler attributeUpdates = plugin.getPlayerManager().getAttributeUpdateScheduler();
+        sender.sendMessage(ChatColor.GRAY + "=====- " + ChatColor.GOLD + "Players" + ChatColor.GRAY + " -=====");
+        sender.sendMessage(ChatColor.YELLOW + "Attribute updates: " + FormattingHelpers.getFormattedInteger(attributeUpdates.getRequestedUpdates()) + " requested, " + FormattingHelpers.getFormattedInteger(attributeUpdates.getPerformedUpdates()) + " performed, " + FormattingHelpers.getFormattedInteger(attributeUpdates.getCoalescedUpdates()) + " coalesced.");
+
+        ProfileLoader profileLoader = plugin.getProfileLoader();
+        sender.sendMessage(ChatColor.YELLOW + "Profile loads: " + FormattingHelpers.getFormattedInteger(profileLoader.getPrefetches()) + " prefetched, " + FormattingHelpers.getFormattedInteger(profileLoader.getReconnectHits()) + " reconnect hits, " + FormattingHelpers.getFormattedInteger(profileLoader.getMisses()) + " misses.");
+
+        PlayerNametags playerNametags = plugin.getPlayerNametags();
+        sender.sendMessage(ChatColor.YELLOW + "Tab list names: " + FormattingHelpers.getFormattedInteger(playerNametags.getSentUpdates()) + " sent, " + FormattingHelpers.getFormattedInteger(playerNametags.getSuppressedUpdates()) + " suppressed.");
+    }
+
+    /**
+     * Gets a player's name without loading their playerdata, online players first then whatever we last indexed
+     */
+    private String getName(UUID id) {
+
+        Player player = plugin.getServer().getPlayer(id);
+        if (player != null)
+            return player.getName();
+
+        OfflineStats stats = plugin.getStatsIndex().getStats(id);
+        return stats != null ? stats.getName() : "Unknown";
+    }
+}
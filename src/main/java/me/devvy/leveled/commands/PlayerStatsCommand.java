@@ -2,7 +2,9 @@ package me.devvy.leveled.commands;
 
 import com.google.common.base.Strings;
 import me.devvy.leveled.Leveled;
+import me.devvy.leveled.player.ExperienceSource;
 import me.devvy.leveled.player.LeveledPlayer;
+import me.devvy.leveled.profile.OfflineStats;
 import me.devvy.leveled.util.FormattingHelpers;
 import org.bukkit.ChatColor;
 import org.bukkit.attribute.Attribute;
@@ -11,6 +13,9 @@ import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
 public class PlayerStatsCommand implements CommandExecutor {
 
     private final Leveled plugin;
@@ -22,12 +27,27 @@ public class PlayerStatsCommand implements CommandExecutor {
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
 
+        // Looking up someone else, they might be offline
+        if (args.length > 0) {
+            Player target = plugin.getServer().getPlayerExact(args[0]);
+            if (target != null)
+                sendStats(sender, target);
+            else
+                sendOfflineStats(sender, args[0]);
+            return true;
+        }
+
         if (!(sender instanceof Player)) {
             System.out.println("Only players can use this!");
             return true;
         }
 
-        Player player = (Player) sender;
+        sendStats(sender, (Player) sender);
+        return true;
+    }
+
+    private void sendStats(CommandSender sender, Player player) {
+
         LeveledPlayer leveledPlayer = plugin.getPlayerManager().getLeveledPlayer(player);
         int envDef = leveledPlayer.getDefense();
         int fireDef = leveledPlayer.getFireDefense();
@@ -35,15 +55,86 @@ public class PlayerStatsCommand implements CommandExecutor {
         int projDef = leveledPlayer.getProjectileDefense();
 
         String header = ChatColor.GRAY + "=====- " + ChatColor.DARK_GREEN + "Lv. " + player.getLevel() + " " + ChatColor.GREEN +  player.getName() + ChatColor.GRAY + " -=====";
-        player.sendMessage(header);
-        player.sendMessage(ChatColor.GREEN + "" + ChatColor.BOLD + FormattingHelpers.getFormattedInteger(leveledPlayer.getExperience().getTotalExperienceRequiredForNextLevel() - leveledPlayer.getExperience().getAccumulatedExperienceToNextLevel()) + ChatColor.GRAY + " XP required to level " + ChatColor.GREEN + ChatColor.BOLD + (player.getLevel() + 1));
-        player.sendMessage();
-        player.sendMessage(ChatColor.DARK_RED + "❤ " + ChatColor.GREEN + "" + FormattingHelpers.getFormattedInteger((int) player.getHealth()) + ChatColor.GRAY + "/" + ChatColor.DARK_GREEN + FormattingHelpers.getFormattedInteger((int) player.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue()) + ChatColor.GRAY + " | " + ChatColor.DARK_RED + "✦ " + ChatColor.RED + leveledPlayer.getStrength());
-        player.sendMessage();
-        player.sendMessage(ChatColor.BLUE + "♠ " + getDefenseColor(envDef) + envDef + ChatColor.GRAY + " | " + ChatColor.GOLD + "♨ " + getDefenseColor(fireDef) + fireDef);
-        player.sendMessage(ChatColor.DARK_GRAY + "☀ " + getDefenseColor(explDef) + explDef + ChatColor.GRAY + " | " + ChatColor.WHITE + "➹ " + getDefenseColor(projDef) + projDef);
-        player.sendMessage(ChatColor.GRAY + Strings.repeat("=", ChatColor.stripColor(header).length()));
-        return true;
+        sender.sendMessage(header);
+        sender.sendMessage(ChatColor.GREEN + "" + ChatColor.BOLD + FormattingHelpers.getFormattedInteger(leveledPlayer.getExperience().getTotalExperienceRequiredForNextLevel() - leveledPlayer.getExperience().getAccumulatedExperienceToNextLevel()) + ChatColor.GRAY + " XP required to level " + ChatColor.GREEN + ChatColor.BOLD + (player.getLevel() + 1));
+        sendRank(sender, player.getUniqueId());
+        sender.sendMessage();
+        sender.sendMessage(ChatColor.DARK_RED + "❤ " + ChatColor.GREEN + "" + FormattingHelpers.getFormattedInteger((int) player.getHealth()) + ChatColor.GRAY + "/" + ChatColor.DARK_GREEN + FormattingHelpers.getFormattedInteger((int) player.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue()) + ChatColor.GRAY + " | " + ChatColor.DARK_RED + "✦ " + ChatColor.RED + leveledPlayer.getStrength());
+        sender.sendMessage();
+        sendDefenses(sender, envDef, fireDef, explDef, projDef);
+        sendExperienceBreakdown(sender, leveledPlayer);
+        sender.sendMessage(ChatColor.GRAY + Strings.repeat("=", ChatColor.stripColor(header).length()));
+    }
+
+    /**
+     * Shows the stats a player had the last time they were indexed, this never loads their playerdata
+     */
+    private void sendOfflineStats(CommandSender sender, String name) {
+
+        OfflineStats stats = plugin.getStatsIndex().getStats(name);
+        if (stats == null) {
+            sender.sendMessage(ChatColor.RED + "We don't have any stats for " + name);
+            return;
+        }
+
+        String header = ChatColor.GRAY + "=====- " + ChatColor.DARK_GREEN + "Lv. " + stats.getLevel() + " " + ChatColor.GREEN + stats.getName() + ChatColor.GRAY + " (offline) -=====";
+        sender.sendMessage(header);
+        sender.sendMessage(ChatColor.GREEN + "" + ChatColor.BOLD + FormattingHelpers.getFormattedInteger(stats.getTotalExperience()) + ChatColor.GRAY + " total XP earned");
+        sendRank(sender, stats.getId());
+        sender.sendMessage();
+        sender.sendMessage(ChatColor.DARK_RED + "❤ " + ChatColor.DARK_GREEN + FormattingHelpers.getFormattedInteger((int) stats.getMaxHealth()) + ChatColor.GRAY + " max HP");
+        sender.sendMessage();
+        sendDefenses(sender, stats.getDefense(), stats.getFireDefense(), stats.getExplosionDefense(), stats.getProjectileDefense());
+        sender.sendMessage();
+        sender.sendMessage(ChatColor.GRAY + "Last seen " + getTimeAgo(stats.getLastSeen()));
+        sender.sendMessage(ChatColor.GRAY + Strings.repeat("=", ChatColor.stripColor(header).length()));
+    }
+
+    private void sendRank(CommandSender sender, UUID id) {
+        int rank = plugin.getLeaderboard().getRank(id);
+        if (rank > 0)
+            sender.sendMessage(ChatColor.GRAY + "Ranked " + ChatColor.GOLD + "#" + FormattingHelpers.getFormattedInteger(rank) + ChatColor.GRAY + " of " + FormattingHelpers.getFormattedInteger(plugin.getLeaderboard().size()) + " players");
+    }
+
+    private void sendDefenses(CommandSender sender, int envDef, int fireDef, int explDef, int projDef) {
+        sender.sendMessage(ChatColor.BLUE + "♠ " + getDefenseColor(envDef) + envDef + ChatColor.GRAY + " | " + ChatColor.GOLD + "♨ " + getDefenseColor(fireDef) + fireDef);
+        sender.sendMessage(ChatColor.DARK_GRAY + "☀ " + getDefenseColor(explDef) + explDef + ChatColor.GRAY + " | " + ChatColor.WHITE + "➹ " + getDefenseColor(projDef) + projDef);
+    }
+
+    private String getTimeAgo(long timestamp) {
+
+        long minutes = TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis() - timestamp);
+        if (minutes < 1)
+            return "just now";
+        else if (minutes < 60)
+            return minutes + " minute(s) ago";
+        else if (minutes < 60 * 24)
+            return minutes / 60 + " hour(s) ago";
+
+        return minutes / (60 * 24) + " day(s) ago";
+    }
+
+    /**
+     * Shows where the player's experience has come from, sources they haven't earned from are skipped
+     */
+    private void sendExperienceBreakdown(CommandSender sender, LeveledPlayer leveledPlayer){
+
+        StringBuilder breakdown = new StringBuilder();
+        for (ExperienceSource source : ExperienceSource.values()) {
+            long earned = leveledPlayer.getExperienceEarned(source);
+            if (earned <= 0)
+                continue;
+
+            if (breakdown.length() > 0)
+                breakdown.append(ChatColor.GRAY).append(" | ");
+            breakdown.append(source.COLOR).append(source.NAME).append(" ").append(ChatColor.WHITE).append(FormattingHelpers.getFormattedInteger(earned));
+        }
+
+        if (breakdown.length() == 0)
+            return;
+
+        sender.sendMessage();
+        sender.sendMessage(ChatColor.GRAY + "XP earned: " + breakdown);
     }
 
     private ChatColor getDefenseColor(int amount){
@@ -2,16 +2,13 @@ package me.devvy.leveled.items;
 
 import me.devvy.leveled.Leveled;
 import me.devvy.leveled.player.LevelRewards;
-import me.devvy.leveled.player.abilities.CustomAbility;
 import org.apache.commons.lang.WordUtils;
 import org.bukkit.*;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.enchantments.EnchantmentWrapper;
-import org.bukkit.entity.Player;
 import org.bukkit.event.Listener;
 import org.bukkit.inventory.ItemFlag;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.PlayerInventory;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataType;
 
@@ -161,20 +158,6 @@ public class CustomItemManager implements Listener {
         itemStack.setItemMeta(meta);
     }
 
-    // TODO: refactor full set bonuses to have a more expandable system
-    public boolean hasFullSetBonus(Player player, CustomAbility abilityReward) {
-
-        switch (abilityReward) {
-            case BOUNDLESS_ROCKETS:
-                PlayerInventory playerInventory = player.getInventory();
-                if (isCustomItemType(playerInventory.getHelmet(), CustomItemType.DRAGON_HELMET) && isCustomItemType(playerInventory.getChestplate(), CustomItemType.DRAGON_CHESTPLATE) && isCustomItemType(playerInventory.getLeggings(), CustomItemType.DRAGON_LEGGINGS) && isCustomItemType(playerInventory.getBoots(), CustomItemType.DRAGON_BOOTS))
-                    return true;
-                break;
-        }
-
-        return false;
-    }
-
     /**
      * Gets the custom item instance that this item is. If the item is not custom, null is returned.
      *
@@ -194,13 +177,25 @@ public class CustomItemManager implements Listener {
      */
     public CustomItemType getCustomItemType(ItemStack item) {
 
-        if (item == null || item.getItemMeta() == null)
+        if (item == null)
             return null;
 
-        if (!item.getItemMeta().getPersistentDataContainer().has(CUSTOM_ITEM_INDEX_KEY, PersistentDataType.INTEGER))
+        return getCustomItemType(item.getItemMeta());
+    }
+
+    /**
+     * Gets the type of custom item from meta that was already grabbed, getItemMeta() makes a copy every time it is
+     * called so use this when the meta is needed for other things too
+     *
+     * @param meta The ItemMeta of some itemstack that could potentially be custom
+     * @return The CustomItemType enum that this item is, null otherwise
+     */
+    public CustomItemType getCustomItemType(ItemMeta meta) {
+
+        if (meta == null)
             return null;
 
-        Integer index = item.getItemMeta().getPersistentDataContainer().get(CUSTOM_ITEM_INDEX_KEY, PersistentDataType.INTEGER);
+        Integer index = meta.getPersistentDataContainer().get(CUSTOM_ITEM_INDEX_KEY, PersistentDataType.INTEGER);
 
         if (index == null)
             return null;
@@ -1,5 +1,7 @@
 package me.devvy.leveled.listeners.monitors;
 
+import me.devvy.leveled.Leveled;
+import me.devvy.leveled.player.PlayerSnapshot;
 import org.bukkit.ChatColor;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -10,7 +12,11 @@ public class PlayerChatListener implements Listener {
     @EventHandler
     public void onPlayerChat(AsyncPlayerChatEvent event) {
 
-        event.setFormat(ChatColor.GOLD + "[" + event.getPlayer().getLevel() + "]" + ChatColor.GRAY + " %1$s:" + ChatColor.WHITE + " %2$s");
+        // We are on the chat thread, so read the level from the player's snapshot rather than the player itself
+        PlayerSnapshot snapshot = Leveled.getPlugin(Leveled.class).getPlayerManager().getSnapshot(event.getPlayer());
+        int level = snapshot != null ? snapshot.getLevel() : 1;
+
+        event.setFormat(ChatColor.GOLD + "[" + level + "]" + ChatColor.GRAY + " %1$s:" + ChatColor.WHITE + " %2$s");
     }
 
 }
@@ -11,9 +11,20 @@ import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.entity.EntityRegainHealthEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerLevelChangeEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
 import org.bukkit.scheduler.BukkitRunnable;
 
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.UUID;
 
+
+/**
+ * Keeps the level and health of every player in the tab list. Changing a tab list name sends a packet to everyone
+ * online, so instead of doing it on every hit and every bit of regen we only mark the player and look at them again a
+ * few times a second. Their name is only sent if what it would show (level, whole HP or health color) changed
+ */
 public class PlayerNametags implements Listener {
 
     private static final String HEALTHY_HP_COLOR = ChatColor.GREEN.toString();
@@ -21,13 +32,54 @@ public class PlayerNametags implements Listener {
     private static final String HURT_HP_COLOR = ChatColor.GOLD.toString();
     private static final String CRITICAL_HP_COLOR = ChatColor.RED.toString();
     private static final String DEAD_HP_COLOR = ChatColor.DARK_GRAY.toString();
+
+    private static final int FLUSH_INTERVAL_TICKS = 5;  // At most 4 times a second
+
     private final Leveled plugin;
+    private final LinkedHashSet<UUID> pendingPlayers;
+    private final HashMap<UUID, DisplayedName> displayedNames;
+    private boolean flushScheduled;
+
+    private long sentUpdates;
+    private long suppressedUpdates;
+
+    /**
+     * What a player's tab list name was built from last time it was sent
+     */
+    private static class DisplayedName {
+
+        private final String name;
+        private final int level;
+        private final int hp;
+        private final String color;
+
+        private DisplayedName(String name, int level, int hp, String color) {
+            this.name = name;
+            this.level = level;
+            this.hp = hp;
+            this.color = color;
+        }
+
+        private boolean matches(String name, int level, int hp, String color) {
+            return this.level == level && this.hp == hp && this.color.equals(color) && this.name.equals(name);
+        }
+    }
+
+    private class FlushTask extends BukkitRunnable {
+
+        @Override
+        public void run() {
+            flushScheduled = false;
+            flush();
+        }
+    }
 
     public PlayerNametags(Leveled plugin) {
         this.plugin = plugin;
-        for (Player p : plugin.getServer().getOnlinePlayers()) {
-            updatePlayerScoreboard(p, p.getLevel(), p.getHealth(), p.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue());
-        }
+        this.pendingPlayers = new LinkedHashSet<>();
+        this.displayedNames = new HashMap<>();
+        for (Player p : plugin.getServer().getOnlinePlayers())
+            updatePlayerListName(p);
     }
 
     public static String getChatColorFromHealth(double hp, double maxHp) {
@@ -45,59 +97,104 @@ public class PlayerNametags implements Listener {
         }
     }
 
-    private String getNametagString(String name, int level, double hp, double maxHp) {
-        return ChatColor.GRAY + "" + ChatColor.BOLD + "Lv. " + level + " " + ChatColor.DARK_GREEN + name + ChatColor.DARK_RED + " ❤" + getChatColorFromHealth(hp, maxHp) + (int) hp;
+    private String getNametagString(String name, int level, int hp, String color) {
+        return ChatColor.GRAY + "" + ChatColor.BOLD + "Lv. " + level + " " + ChatColor.DARK_GREEN + name + ChatColor.DARK_RED + " ❤" + color + hp;
     }
 
-    private void updatePlayerScoreboard(Player player, int level, double hp, double maxHp) {
-        player.setPlayerListName(getNametagString(player.getDisplayName(), level, hp >= 0 ? hp : 0, maxHp));
+    /**
+     * Sends the player's tab list name if anything it shows has changed since last time
+     */
+    private void updatePlayerListName(Player player) {
+
+        double hp = Math.max(player.getHealth(), 0);
+        String name = player.getDisplayName();
+        int level = player.getLevel();
+        String color = getChatColorFromHealth(hp, player.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue());
+
+        DisplayedName displayed = displayedNames.get(player.getUniqueId());
+        if (displayed != null && displayed.matches(name, level, (int) hp, color)) {
+            suppressedUpdates++;
+            return;
+        }
+
+        player.setPlayerListName(getNametagString(name, level, (int) hp, color));
+        displayedNames.put(player.getUniqueId(), new DisplayedName(name, level, (int) hp, color));
+        sentUpdates++;
+    }
+
+    /**
+     * Marks a player's tab list name to be looked at on the next flush
+     */
+    private void markDirty(Player player) {
+
+        // Already waiting for the next flush, this change will be picked up with the others
+        if (!pendingPlayers.add(player.getUniqueId()))
+            suppressedUpdates++;
+
+        if (!flushScheduled) {
+            flushScheduled = true;
+            new FlushTask().runTaskLater(plugin, FLUSH_INTERVAL_TICKS);
+        }
+    }
+
+    private void flush() {
+
+        UUID[] toUpdate = pendingPlayers.toArray(new UUID[0]);
+        pendingPlayers.clear();
+
+        for (UUID id : toUpdate) {
+            Player player = plugin.getServer().getPlayer(id);
+            if (player != null)
+                updatePlayerListName(player);
+        }
+    }
+
+    /**
+     * @return How many tab list names were actually sent
+     */
+    public long getSentUpdates() {
+        return sentUpdates;
+    }
+
+    /**
+     * @return How many updates were skipped, either merged into a pending update or because nothing visible changed
+     */
+    public long getSuppressedUpdates() {
+        return suppressedUpdates;
     }
 
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
-        updatePlayerScoreboard(event.getPlayer(), event.getPlayer().getLevel(), event.getPlayer().getHealth(), event.getPlayer().getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue());
+        displayedNames.remove(event.getPlayer().getUniqueId());
+        updatePlayerListName(event.getPlayer());
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        displayedNames.remove(event.getPlayer().getUniqueId());
+        pendingPlayers.remove(event.getPlayer().getUniqueId());
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerDamage(EntityDamageEvent event) {
+        if (event.getEntity() instanceof Player)
+            markDirty((Player) event.getEntity());
+    }
 
-        if (event.getEntity() instanceof Player) {
-            Player player = (Player) event.getEntity();
-            updatePlayerScoreboard(player, player.getLevel(), player.getHealth() - event.getFinalDamage(), player.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue());
-
-            // If the player is dead, try again in 5 seconds, otherwise update the scoreboard
-            if (player.getHealth() - event.getFinalDamage() <= 0) {
-                new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        if (player.getHealth() >= 0) {
-                            updatePlayerScoreboard(player, player.getLevel(), player.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue(), player.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue());
-                        }
-                    }
-                }.runTaskLater(this.plugin, 20 * 5);
-            }
-        }
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerRespawn(PlayerRespawnEvent event) {
+        markDirty(event.getPlayer());
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onLevelChange(PlayerLevelChangeEvent event) {
-        if (event.getNewLevel() < event.getOldLevel()) {
-            return;
-        }
-        updatePlayerScoreboard(event.getPlayer(), event.getNewLevel(), event.getPlayer().getHealth(), event.getPlayer().getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue());
+        markDirty(event.getPlayer());
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerHealthRegen(EntityRegainHealthEvent event) {
-
-        if (event.getEntity() instanceof Player) {
-            Player player = (Player) event.getEntity();
-            double hpToDisplay = player.getHealth() + event.getAmount();
-            if (hpToDisplay >= player.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue()) {
-                hpToDisplay = player.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue();
-            }
-            updatePlayerScoreboard(player, player.getLevel(), hpToDisplay, player.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue());
-        }
+        if (event.getEntity() instanceof Player)
+            markDirty((Player) event.getEntity());
     }
 
 }
@@ -0,0 +1,356 @@
+package me.devvy.leveled.listeners.progression;
+
+import me.devvy.leveled.Leveled;
+import me.devvy.leveled.player.LevelRewards;
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.Sound;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+
+import java.util.HashMap;
+import java.util.UUID;
+
+/**
+ * Every level requirement in the game goes through here, tools, armor, bows and shields and blocks like brewing stands
+ * and enchanting tables. Anything that only depends on the material is compiled into flat tables indexed by the
+ * material's ordinal when the class loads. The level stamped on an item can only be read by copying its meta, so every
+ * player gets a small cache per slot and we only read an item's level again when the item in that slot changes
+ */
+public class LevelGateListeners implements Listener {
+
+    private static final Material[] MATERIALS = Material.values();
+
+    // Minimum level to right click with an item in either hand, 0 means right clicking with it is never gated
+    private static final int[] USE_LEVELS = new int[MATERIALS.length];
+    // Minimum level to right click a block, 0 means the block is never gated
+    private static final int[] STATION_LEVELS = new int[MATERIALS.length];
+    // What we tell the player they can't do when a block stops them
+    private static final String[] STATION_ACTIONS = new String[MATERIALS.length];
+    private static final Sound[] DENY_SOUNDS = new Sound[MATERIALS.length];
+    private static final boolean[] WEARABLE = new boolean[MATERIALS.length];
+
+    // Slots in a player's cache
+    private static final int MAIN_HAND = 0;
+    private static final int OFF_HAND = 1;
+    private static final int CURSOR = 2;
+    private static final int HELMET = 3;
+    private static final int CHESTPLATE = 4;
+    private static final int LEGGINGS = 5;
+    private static final int BOOTS = 6;
+    private static final int SLOT_COUNT = 7;
+
+    static {
+
+        for (Material material : MATERIALS) {
+            DENY_SOUNDS[material.ordinal()] = Sound.BLOCK_ANVIL_PLACE;
+            WEARABLE[material.ordinal()] = isWearable(material);
+        }
+
+        compileUse(Material.BOW, LevelRewards.NORMAL_BOW_UNLOCK, Sound.ITEM_CROSSBOW_SHOOT);
+        compileUse(Material.CROSSBOW, LevelRewards.CROSSBOW_UNLOCK, Sound.ITEM_CROSSBOW_SHOOT);
+        compileUse(Material.SHIELD, LevelRewards.SHIELD_UNLOCK, Sound.ITEM_SHIELD_BREAK);
+
+        compileStation(Material.BREWING_STAND, LevelRewards.BREWING_UNLOCK, "to brew potions!", Sound.BLOCK_BREWING_STAND_BREW);
+        compileStation(Material.ENCHANTING_TABLE, LevelRewards.ENCHANTING_UNLOCK, "to enchant!", Sound.BLOCK_ENCHANTMENT_TABLE_USE);
+    }
+
+    private static void compileUse(Material material, int level, Sound denySound) {
+        USE_LEVELS[material.ordinal()] = level;
+        DENY_SOUNDS[material.ordinal()] = denySound;
+    }
+
+    private static void compileStation(Material material, int level, String action, Sound denySound) {
+        STATION_LEVELS[material.ordinal()] = level;
+        STATION_ACTIONS[material.ordinal()] = action;
+        DENY_SOUNDS[material.ordinal()] = denySound;
+    }
+
+    private static boolean isWearable(Material material){
+
+        switch (material){
+            case CHAINMAIL_CHESTPLATE:
+            case DIAMOND_CHESTPLATE:
+            case GOLDEN_CHESTPLATE:
+            case IRON_CHESTPLATE:
+            case LEATHER_CHESTPLATE:
+            case NETHERITE_CHESTPLATE:
+            case LEATHER_HELMET:
+            case CHAINMAIL_HELMET:
+            case DIAMOND_HELMET:
+            case GOLDEN_HELMET:
+            case IRON_HELMET:
+            case NETHERITE_HELMET:
+            case TURTLE_HELMET:
+            case LEATHER_LEGGINGS:
+            case CHAINMAIL_LEGGINGS:
+            case DIAMOND_LEGGINGS:
+            case GOLDEN_LEGGINGS:
+            case IRON_LEGGINGS:
+            case NETHERITE_LEGGINGS:
+            case CHAINMAIL_BOOTS:
+            case DIAMOND_BOOTS:
+            case GOLDEN_BOOTS:
+            case IRON_BOOTS:
+            case LEATHER_BOOTS:
+            case NETHERITE_BOOTS:
+            case ELYTRA:
+            case DRAGON_HEAD:
+            case CREEPER_HEAD:
+            case PLAYER_HEAD:
+            case ZOMBIE_HEAD:
+                return true;
+            default:return false;
+        }
+    }
+
+    /**
+     * The last item we saw in each slot of a player and the level it requires
+     */
+    private static class ItemLevelCache {
+
+        private final ItemStack[] items = new ItemStack[SLOT_COUNT];
+        private final int[] levels = new int[SLOT_COUNT];
+    }
+
+    private final Leveled plugin;
+    private final HashMap<UUID, ItemLevelCache> caches;
+
+    public LevelGateListeners(Leveled plugin) {
+        this.plugin = plugin;
+        this.caches = new HashMap<>();
+    }
+
+    /**
+     * Gets the level an item requires, only reading it off of the item if it isn't what was in the slot last time
+     *
+     * @param player The player holding or wearing the item
+     * @param slot Which slot in their cache the item belongs to
+     * @param item The item, can be null
+     * @return The level the item requires, 0 if it doesn't require one
+     */
+    private int getRequiredLevel(Player player, int slot, ItemStack item) {
+
+        if (item == null || item.getType() == Material.AIR)
+            return 0;
+
+        ItemLevelCache cache = caches.get(player.getUniqueId());
+        if (cache == null) {
+            cache = new ItemLevelCache();
+            caches.put(player.getUniqueId(), cache);
+        }
+
+        // isSimilar compares the items' data directly instead of copying meta, and ignores the stack size
+        ItemStack cached = cache.items[slot];
+        if (cached != null && cached.getType() == item.getType() && cached.isSimilar(item))
+            return cache.levels[slot];
+
+        // Reading the level stamps one on the item if it didn't have one, so copy it after
+        int level = plugin.getCustomItemManager().getItemLevel(item);
+        cache.items[slot] = item.clone();
+        cache.levels[slot] = level;
+        return level;
+    }
+
+    private void deny(Cancellable event, Player player, int requiredLevel, String action, Sound sound) {
+        event.setCancelled(true);
+        player.sendActionBar(ChatColor.RED + "You must be level " + ChatColor.DARK_RED + requiredLevel + ChatColor.RED + " " + action);
+        player.playSound(player.getLocation(), sound, .3f, .7f);
+    }
+
+    /**
+     * Checks an item that a player is about to swing or mine with
+     *
+     * @return True if the event was cancelled
+     */
+    private boolean checkToolUse(Cancellable event, Player player, ItemStack tool) {
+        int requiredLevel = getRequiredLevel(player, MAIN_HAND, tool);
+        if (requiredLevel <= player.getLevel())
+            return false;
+
+        deny(event, player, requiredLevel, "to use that item!", Sound.BLOCK_ANVIL_PLACE);
+        return true;
+    }
+
+    /**
+     * Checks an item that a player is right clicking with, bows and shields have a minimum level on top of the item's
+     *
+     * @return True if the event was cancelled
+     */
+    private boolean checkItemUse(Cancellable event, Player player, int slot, ItemStack item) {
+
+        int useLevel = USE_LEVELS[item.getType().ordinal()];
+        if (useLevel == 0)
+            return false;
+
+        int requiredLevel = Math.max(getRequiredLevel(player, slot, item), useLevel);
+        if (requiredLevel <= player.getLevel())
+            return false;
+
+        deny(event, player, requiredLevel, "to use this item!", DENY_SOUNDS[item.getType().ordinal()]);
+        return true;
+    }
+
+    /**
+     * Checks an item that a player is trying to put on
+     *
+     * @return True if the event was cancelled
+     */
+    private boolean checkEquip(Cancellable event, Player player, int slot, ItemStack item) {
+
+        if (item == null || !WEARABLE[item.getType().ordinal()])
+            return false;
+
+        int requiredLevel = getRequiredLevel(player, slot, item);
+        if (requiredLevel <= player.getLevel())
+            return false;
+
+        deny(event, player, requiredLevel, "to equip that item!", Sound.BLOCK_ANVIL_PLACE);
+        return true;
+    }
+
+    /**
+     * Checks a block that a player right clicked
+     *
+     * @return True if the event was cancelled
+     */
+    private boolean checkStation(Cancellable event, Player player, Block block) {
+
+        if (block == null)
+            return false;
+
+        int requiredLevel = STATION_LEVELS[block.getType().ordinal()];
+        if (requiredLevel <= player.getLevel())
+            return false;
+
+        deny(event, player, requiredLevel, STATION_ACTIONS[block.getType().ordinal()], DENY_SOUNDS[block.getType().ordinal()]);
+        return true;
+    }
+
+    /**
+     * Because there may be exploits that allow players to equip over leveled armor, check the player to make sure
+     * their armor is legal
+     *
+     * @param player The spigot player to check
+     */
+    private void equippedArmorSanityCheck(Player player){
+        PlayerInventory inventory = player.getInventory();
+        dropIfOverLevel(player, HELMET, inventory.getHelmet());
+        dropIfOverLevel(player, CHESTPLATE, inventory.getChestplate());
+        dropIfOverLevel(player, LEGGINGS, inventory.getLeggings());
+        dropIfOverLevel(player, BOOTS, inventory.getBoots());
+    }
+
+    private void dropIfOverLevel(Player player, int slot, ItemStack armorItem) {
+        if (getRequiredLevel(player, slot, armorItem) <= player.getLevel())
+            return;
+
+        player.getWorld().dropItemNaturally(player.getLocation(), armorItem.clone());
+        armorItem.setAmount(0);
+    }
+
+    /**
+     * Right clicks can put on armor, draw a bow, raise a shield or open a station. We stop at the first thing the
+     * player isn't allowed to do so they only get one message
+     *
+     * @param event - The PlayerInteractEvent we are listening to
+     */
+    @EventHandler(ignoreCancelled = true)
+    public void onPlayerInteract(PlayerInteractEvent event) {
+
+        Action action = event.getAction();
+        if (action != Action.RIGHT_CLICK_AIR && action != Action.RIGHT_CLICK_BLOCK)
+            return;
+
+        Player player = event.getPlayer();
+        PlayerInventory inventory = player.getInventory();
+        int handSlot = event.getHand() == EquipmentSlot.OFF_HAND ? OFF_HAND : MAIN_HAND;
+
+        if (checkEquip(event, player, handSlot, event.getItem()))
+            return;
+
+        if (checkItemUse(event, player, MAIN_HAND, inventory.getItemInMainHand()))
+            return;
+
+        if (checkItemUse(event, player, OFF_HAND, inventory.getItemInOffHand()))
+            return;
+
+        if (action == Action.RIGHT_CLICK_BLOCK)
+            checkStation(event, player, event.getClickedBlock());
+    }
+
+    /**
+     * Listen for events where a player breaks a block and make sure they are high enough level to use the tool
+     *
+     * @param event - The BlockBreakEvent we are listening to
+     */
+    @EventHandler
+    public void onBlockBreak(BlockBreakEvent event) {
+        checkToolUse(event, event.getPlayer(), event.getPlayer().getInventory().getItemInMainHand());
+    }
+
+    /**
+     * Checks the armor of players getting hurt, and the weapon of players doing the hurting. Both run at LOWEST so
+     * they share one handler, cancelling an attack here means the rest of the damage listeners never see it
+     *
+     * @param event - The EntityDamageEvent we are listening to
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onEntityDamage(EntityDamageEvent event) {
+
+        if (event.getEntity() instanceof Player)
+            equippedArmorSanityCheck((Player) event.getEntity());
+
+        if (event.isCancelled() || !(event instanceof EntityDamageByEntityEvent))
+            return;
+
+        Entity damager = ((EntityDamageByEntityEvent) event).getDamager();
+        if (damager instanceof Player)
+            checkToolUse(event, (Player) damager, ((Player) damager).getInventory().getItemInMainHand());
+    }
+
+    /**
+     * Listen to inventory click events and cancel them if a player is trying to equip an item they are not high
+     * enough level for
+     *
+     * @param event - The InventoryClickEvent we are listening to
+     */
+    @EventHandler(ignoreCancelled = true)
+    public void onInventoryClick(InventoryClickEvent event) {
+
+        if (!(event.getWhoClicked() instanceof Player))
+            return;
+
+        Player player = (Player) event.getWhoClicked();
+
+        // Placing the held item into an armor slot
+        if (event.getSlotType() == InventoryType.SlotType.ARMOR)
+            checkEquip(event, player, CURSOR, event.getCursor());
+        // Shift clicking armor can put it straight on
+        else if (event.getAction() == InventoryAction.MOVE_TO_OTHER_INVENTORY)
+            checkEquip(event, player, CURSOR, event.getCurrentItem());
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        caches.remove(event.getPlayer().getUniqueId());
+    }
+
+}
@@ -2,8 +2,6 @@ package me.devvy.leveled.listeners.progression;
 
 import me.devvy.leveled.Leveled;
 import me.devvy.leveled.mobs.LeveledLivingEntity;
-import me.devvy.leveled.player.PlayerExperience;
-import me.devvy.leveled.player.LevelRewards;
 import me.devvy.leveled.util.NametagInterface;
 import org.bukkit.ChatColor;
 import org.bukkit.GameMode;
@@ -23,41 +21,12 @@ import org.bukkit.inventory.PlayerInventory;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataType;
 
-import java.util.HashMap;
-
 public class MiscEquipmentListeners implements Listener {
 
     private final Leveled plugin;
-    private final HashMap<Material, Integer> equipmentRequirements;
 
     public MiscEquipmentListeners(Leveled plugin) {
-
         this.plugin = plugin;
-
-        this.equipmentRequirements = new HashMap<>();
-
-        this.equipmentRequirements.put(Material.BOW, LevelRewards.NORMAL_BOW_UNLOCK);
-        this.equipmentRequirements.put(Material.CROSSBOW, LevelRewards.CROSSBOW_UNLOCK);
-
-        this.equipmentRequirements.put(Material.SHIELD, LevelRewards.SHIELD_UNLOCK);
-    }
-
-
-    private Sound getSoundFromMaterial(Material material) {
-        switch (material) {
-            case CROSSBOW:
-            case BOW:
-                return Sound.ITEM_CROSSBOW_SHOOT;
-            case SHIELD:
-                return Sound.ITEM_SHIELD_BREAK;
-            case ENDER_CHEST:
-            case ENDER_PEARL:
-            case ENDER_EYE:
-            case SHULKER_BOX:
-                return Sound.ENTITY_ENDERMAN_TELEPORT;
-            default:
-                return Sound.BLOCK_ANVIL_PLACE;
-        }
     }
 
     private boolean canBeRenamed(ItemStack itemStack){
@@ -77,63 +46,6 @@ public class MiscEquipmentListeners implements Listener {
         return action == Action.RIGHT_CLICK_BLOCK || action == Action.RIGHT_CLICK_AIR;
     }
 
-    @EventHandler(ignoreCancelled = true)
-    public void onItemInteract(PlayerInteractEvent event) {
-
-
-        Player player = event.getPlayer();
-        Action action = event.getAction();
-
-        // We only need to worry about right click events
-        if (!(action.equals(Action.RIGHT_CLICK_BLOCK) || action.equals(Action.RIGHT_CLICK_AIR))) {
-            return;
-        }
-
-        // Do we even need to perform a level check?
-        if (player.getLevel() >= PlayerExperience.LEVEL_CAP) {
-            return;
-        }
-
-        // What's in our hand?
-        ItemStack itemInHand = event.getPlayer().getInventory().getItemInMainHand();
-        ItemStack itemInOffhand = event.getPlayer().getInventory().getItemInOffHand();
-
-        // Check if any of the items are level capped
-        boolean mainHandNeedsChecked = equipmentRequirements.containsKey(itemInHand.getType());
-        boolean offhandNeedsChecked = equipmentRequirements.containsKey(itemInOffhand.getType());
-        boolean blockClickedNeedsChecked = action.equals(Action.RIGHT_CLICK_BLOCK) &&
-                event.getClickedBlock() != null && (equipmentRequirements.containsKey(event.getClickedBlock().getType()));
-
-        if (!(mainHandNeedsChecked || offhandNeedsChecked || blockClickedNeedsChecked))
-            return;
-
-        // We may potentially run into issues, check their main hand first
-        if (mainHandNeedsChecked) {
-            int levelRequired = Math.max(plugin.getCustomItemManager().getItemLevel(itemInHand), equipmentRequirements.get(itemInHand.getType()));
-            if (levelRequired > player.getLevel()) {
-                event.setCancelled(true);
-                player.sendActionBar(ChatColor.RED + "You must be level " + ChatColor.DARK_RED + levelRequired + ChatColor.RED + " to use this item!");
-                player.playSound(player.getLocation(), this.getSoundFromMaterial(itemInHand.getType()), .3f, .7f);
-            }
-            // Now check their offhand
-        }
-        if (offhandNeedsChecked) {
-            int levelRequired = Math.max(plugin.getCustomItemManager().getItemLevel(itemInOffhand), equipmentRequirements.get(itemInOffhand.getType()));
-            if (levelRequired > player.getLevel()) {
-                event.setCancelled(true);
-                player.sendActionBar( ChatColor.RED + "You must be level " + ChatColor.DARK_RED + levelRequired + ChatColor.RED + " to use this item!");
-                player.playSound(player.getLocation(), this.getSoundFromMaterial(itemInOffhand.getType()), .3f, .7f);
-            }
-        } if (blockClickedNeedsChecked) {
-            if (player.getLevel() < equipmentRequirements.get(event.getClickedBlock().getType())){
-                event.setCancelled(true);
-                player.sendActionBar( ChatColor.RED + "You must be level " + ChatColor.DARK_RED + equipmentRequirements.get(event.getClickedBlock().getType()) + ChatColor.RED + " to interact with this item!");
-                player.playSound(player.getLocation(), this.getSoundFromMaterial(event.getClickedBlock().getType()), .3f, .7f);
-            }
-        }
-
-    }
-
     @EventHandler
     public void onNametagRightClick(PlayerInteractEvent event){
 
@@ -3,14 +3,12 @@ package me.devvy.leveled.listeners.progression;
 import me.devvy.leveled.Leveled;
 import me.devvy.leveled.enchantments.EnchantmentManager;
 import me.devvy.leveled.items.Rarity;
-import me.devvy.leveled.player.LeveledPlayer;
+import me.devvy.leveled.player.ExperienceCurve;
+import me.devvy.leveled.player.ExperienceSource;
 import me.devvy.leveled.player.PlayerExperience;
 import me.devvy.leveled.player.BaseExperience;
-import me.devvy.leveled.util.FormattingHelpers;
-import org.bukkit.ChatColor;
 import org.bukkit.GameMode;
 import org.bukkit.Material;
-import org.bukkit.Sound;
 import org.bukkit.attribute.Attribute;
 import org.bukkit.block.Block;
 import org.bukkit.enchantments.Enchantment;
@@ -71,7 +69,6 @@ public class PlayerExperienceGainListeners implements Listener {
         if (player.getGameMode() == GameMode.CREATIVE)
             return;
 
-        LeveledPlayer leveledPlayer = plugin.getPlayerManager().getLeveledPlayer(player);
         LivingEntity livingEntity = event.getEntity();
 
         //TODO: maybe add logic for players who pvp or something
@@ -79,9 +76,9 @@ public class PlayerExperienceGainListeners implements Listener {
             return;
 
         int mobLevel = plugin.getMobManager().getMobLevel(livingEntity);
-        int xpCalcLevel = mobLevel + 1;
 
-        int xpRequiredForLevel = 500 * xpCalcLevel * xpCalcLevel - (500 * mobLevel);
+        // Kills have always been worth a little more than the curve, 500 * (level + 1)^2 - 500 * level
+        long xpRequiredForLevel = ExperienceCurve.getExperienceRequiredForLevel(mobLevel) + 500;
         double avgMobsToDefeat = 10 + Math.pow(mobLevel, 1.15);
 
         // At this point a player has killed another entity and we can calculate their xp
@@ -94,20 +91,18 @@ public class PlayerExperienceGainListeners implements Listener {
         double doubleXpChance = .05;
 
         // Check the tool in their hand to see if we should give xp
-        String bonus = "";
+        boolean bonus = false;
         doubleXpChance = getDoubleXpChance(player, doubleXpChance);
 
         if (Math.random() < doubleXpChance) {
-            bonus = ChatColor.LIGHT_PURPLE + "" + ChatColor.BOLD + "BONUS! ";
+            bonus = true;
             xp *= 2;
         }
 
         if (xp <= 0)
             return;
 
-        leveledPlayer.giveExperience(xp); // Gives player exp
-        player.playSound(player.getLocation(), Sound.ENTITY_EXPERIENCE_ORB_PICKUP, (float) .5, 1);
-        plugin.getActionBarManager().dispalyActionBarTextWithExtra(player, bonus + ChatColor.YELLOW + "+" + xp + " XP");
+        plugin.getPlayerManager().grantExperience(player, ExperienceSource.MOB_KILL, xp, bonus); // Gives player exp
     }
 
     /**
@@ -126,7 +121,6 @@ public class PlayerExperienceGainListeners implements Listener {
             return;
 
         Player player = event.getPlayer();
-        LeveledPlayer leveledPlayer = plugin.getPlayerManager().getLeveledPlayer(player);
         ItemStack tool = player.getInventory().getItemInMainHand();
         Block block = event.getBlock();
 
@@ -180,7 +174,7 @@ public class PlayerExperienceGainListeners implements Listener {
         if (player.getLevel() >= PlayerExperience.LEVEL_CAP)
             return;
 
-        String xpMessage = ChatColor.BLUE + "+" + xpGained + " XP";
+        boolean bonus = false;
 
         // 5% chance for double xp :)
         double doubleXpChance = .05;
@@ -190,13 +184,11 @@ public class PlayerExperienceGainListeners implements Listener {
 
         if (Math.random() <= doubleXpChance) {
             xpGained *= 2;
-            xpMessage = ChatColor.LIGHT_PURPLE + "" + ChatColor.BOLD + "BONUS! " + ChatColor.BLUE + "+" + xpGained + " XP";
+            bonus = true;
         }
 
         // Looks good to give them xp
-        leveledPlayer.giveExperience(xpGained);
-        player.playSound(player.getLocation(), Sound.ENTITY_EXPERIENCE_ORB_PICKUP, .5f, 1);
-        plugin.getActionBarManager().dispalyActionBarTextWithExtra(player, xpMessage);
+        plugin.getPlayerManager().grantExperience(player, ExperienceSource.MINING, xpGained, bonus);
     }
 
     /**
@@ -216,7 +208,6 @@ public class PlayerExperienceGainListeners implements Listener {
         if (player.getGameMode() == GameMode.CREATIVE)
             return;
 
-        LeveledPlayer leveledPlayer = plugin.getPlayerManager().getLeveledPlayer(player);
 
         // Does the player even need xp?
         if (player.getLevel() >= PlayerExperience.LEVEL_CAP) {
@@ -225,9 +216,7 @@ public class PlayerExperienceGainListeners implements Listener {
 
         // We should be good to give xp
         int xpGained = BaseExperience.getBaseExperienceFromSmelt(event.getItemType(), event.getItemAmount());
-        player.playSound(player.getLocation(), Sound.ENTITY_EXPERIENCE_ORB_PICKUP, .5f, 1);
-        leveledPlayer.giveExperience(xpGained);
-        plugin.getActionBarManager().dispalyActionBarTextWithExtra(player, ChatColor.GOLD + "+" + xpGained + " XP");
+        plugin.getPlayerManager().grantExperience(player, ExperienceSource.SMELTING, xpGained, false);
     }
 
     @EventHandler(priority = EventPriority.HIGHEST)
@@ -259,7 +248,6 @@ public class PlayerExperienceGainListeners implements Listener {
         }
 
         Player player = (Player) event.getWhoClicked();
-        LeveledPlayer leveledPlayer = plugin.getPlayerManager().getLeveledPlayer(player);
 
         // If the cursor is empty we have nothing to worry about, the trade should be fine
         if (event.getCursor() == null || event.getCursor().getType() == Material.AIR){
@@ -269,10 +257,7 @@ public class PlayerExperienceGainListeners implements Listener {
             // Give them xp based on the rarity of the item
             Rarity itemRarity = Rarity.getItemRarity(event.getCurrentItem());
             int xp = 75000 * (itemRarity.ordinal() + 1);
-            leveledPlayer.giveExperience(xp);
-
-            player.getWorld().playSound(player.getEyeLocation(), Sound.ENTITY_EXPERIENCE_ORB_PICKUP, 1, 1);
-            plugin.getActionBarManager().dispalyActionBarTextWithExtra(player, ChatColor.DARK_GREEN + "+" + FormattingHelpers.getFormattedInteger(xp) + "XP");
+            plugin.getPlayerManager().grantExperience(player, ExperienceSource.TRADING, xp, false);
 
         } else {
 
@@ -308,23 +293,17 @@ public class PlayerExperienceGainListeners implements Listener {
         }
 
         Player player = event.getPlayer();
-        LeveledPlayer leveledPlayer = plugin.getPlayerManager().getLeveledPlayer(player);
 
         // Smarty pants?
         double multiplier = 1;
-        String message = ChatColor.GREEN + "Challenge Completed! " + ChatColor.LIGHT_PURPLE + "+" + xpEarned + " XP";
 
         if (player.getInventory().getLeggings() != null && player.getInventory().getLeggings().getItemMeta() != null)
             multiplier += player.getInventory().getLeggings().getEnchantmentLevel(EnchantmentManager.SMARTY_PANTS) * .15;
 
-        if (multiplier > 1) {
+        if (multiplier > 1)
             xpEarned *= multiplier;
-            message = ChatColor.LIGHT_PURPLE + "" + ChatColor.BOLD + "BONUS! " + message;
-        }
 
         // Gib xp
-        player.playSound(player.getLocation(), Sound.UI_TOAST_CHALLENGE_COMPLETE, .5f, 1);
-        leveledPlayer.giveExperience(xpEarned);
-        plugin.getActionBarManager().dispalyActionBarTextWithExtra(player, message);
+        plugin.getPlayerManager().grantExperience(player, ExperienceSource.ADVANCEMENT, xpEarned, multiplier > 1);
     }
 }
@@ -3,7 +3,8 @@ package me.devvy.leveled.mobs;
 import me.devvy.leveled.Leveled;
 import me.devvy.leveled.enchantments.EnchantmentManager;
 import me.devvy.leveled.items.CustomItemType;
-import me.devvy.leveled.player.LeveledPlayer;
+import me.devvy.leveled.player.ActionBarSegment;
+import me.devvy.leveled.player.ExperienceSource;
 import org.bukkit.*;
 import org.bukkit.attribute.Attribute;
 import org.bukkit.block.Biome;
@@ -136,8 +137,9 @@ public class BossManager implements Listener {
             case ENDER_DRAGON:
             case WITHER:
             case ELDER_GUARDIAN:
-                if (event.getEntity().getCustomName() != null)
-                    plugin.getServer().broadcastMessage(ChatColor.GRAY + "A " + event.getEntity().getCustomName() + ChatColor.GRAY + " has spawned!");
+                // Ask for the nametag instead of reading the custom name, it isn't set on the entity when players are sent their own names
+                String nametag = plugin.getMobManager().getLeveledEntity((LivingEntity) event.getEntity()).getNametag();
+                plugin.getServer().broadcastMessage(ChatColor.GRAY + "A " + nametag + ChatColor.GRAY + " has spawned!");
         }
     }
 
@@ -155,9 +157,8 @@ public class BossManager implements Listener {
                 int dragonLevel = plugin.getMobManager().getMobLevel(event.getEntity());
                 // We are going to give all players in the end a bonus
                 for (Player p : event.getEntity().getWorld().getPlayers()) {
-                    LeveledPlayer leveledPlayer = plugin.getPlayerManager().getLeveledPlayer(p);
                     int xp = Math.min(dragonLevel * 20000, 900000);
-                    leveledPlayer.giveExperience(xp);
+                    plugin.getPlayerManager().grantExperience(p, ExperienceSource.BOSS, xp, false);
                     p.sendMessage(ChatColor.GOLD + "You killed " + ChatColor.RED + "The Ender Dragon" + ChatColor.YELLOW + "! +" + xp + "XP");
                 }
                 spawnBossDrop(getRandomEnderDragonDrop(dragonLevel - 2), event.getEntity().getLocation(), true);
@@ -168,8 +169,7 @@ public class BossManager implements Listener {
                 // All players within 100 block radius from the wither get credit
                 for (Player p : event.getEntity().getWorld().getPlayers()) {
                     if (p.getLocation().distance(event.getEntity().getLocation()) < 100) {
-                        LeveledPlayer leveledPlayer = plugin.getPlayerManager().getLeveledPlayer(p);
-                        leveledPlayer.giveExperience(1000000);
+                        plugin.getPlayerManager().grantExperience(p, ExperienceSource.BOSS, 1000000, false);
                         p.sendMessage(ChatColor.GOLD + "You killed " + ChatColor.RED + "The Wither" + ChatColor.YELLOW + "! +1,000,000XP");
                     }
                 }
@@ -180,8 +180,7 @@ public class BossManager implements Listener {
                 // All players within 100 block radius from the guardian get credit
                 for (Player p : event.getEntity().getWorld().getPlayers()) {
                     if (p.getLocation().distance(event.getEntity().getLocation()) < 100) {
-                        LeveledPlayer leveledPlayer = plugin.getPlayerManager().getLeveledPlayer(p);
-                        leveledPlayer.giveExperience(200000);
+                        plugin.getPlayerManager().grantExperience(p, ExperienceSource.BOSS, 200000, false);
                         p.sendMessage(ChatColor.GOLD + "You killed " + ChatColor.RED + "The Elder Guardian" + ChatColor.YELLOW + "! +200,000XP");
                     }
                 }
@@ -270,7 +269,7 @@ public class BossManager implements Listener {
 
 
                 if (!poisonedPlayers.contains(player) || times >= 600){
-                    plugin.getActionBarManager().dispalyActionBarTextWithExtra(player, ChatColor.GREEN + "" + ChatColor.BOLD + "CURED");
+                    plugin.getActionBarManager().showSegment(player, ActionBarSegment.STATUS, ChatColor.GREEN + "" + ChatColor.BOLD + "CURED");
                     poisonedPlayers.remove(player);
                     this.cancel();
                     return;
@@ -279,10 +278,10 @@ public class BossManager implements Listener {
                 try {
                     double dmg = Math.min(player.getLevel(), times / 20);
                     player.setHealth(player.getHealth() - dmg);
-                    plugin.getActionBarManager().dispalyActionBarTextWithExtra(player, ChatColor.DARK_PURPLE + "" + ChatColor.BOLD + "POISONED " + (29 - (times / 20)) + "." + (9 - (times % 20 / 2)) + "s");
+                    plugin.getActionBarManager().showSegment(player, ActionBarSegment.STATUS, ChatColor.DARK_PURPLE + "" + ChatColor.BOLD + "POISONED " + (29 - (times / 20)) + "." + (9 - (times % 20 / 2)) + "s");
                 } catch (IllegalArgumentException ignored){
                     player.setHealth(1);
-                    plugin.getActionBarManager().dispalyActionBarTextWithExtra(player, ChatColor.DARK_PURPLE + "" + ChatColor.BOLD + "POISONED " + (29 - (times / 20)) + "." + (9 - (times % 20 / 2)) + "s");
+                    plugin.getActionBarManager().showSegment(player, ActionBarSegment.STATUS, ChatColor.DARK_PURPLE + "" + ChatColor.BOLD + "POISONED " + (29 - (times / 20)) + "." + (9 - (times % 20 / 2)) + "s");
                 } catch(Exception ignored){
                     poisonedPlayers.remove(player);
                     this.cancel();
@@ -9,11 +9,14 @@ import org.bukkit.attribute.Attribute;
 import org.bukkit.block.Biome;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.*;
+import org.bukkit.event.entity.CreatureSpawnEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 
+import java.util.UUID;
+
 public class LeveledLivingEntity {
 
     // TODO: make config option, sets colors to use before mob names
@@ -25,6 +28,16 @@ public class LeveledLivingEntity {
 
     protected final LivingEntity entity;
 
+    // A copy of what is stored in the entity's persistent data container, reading the container every time is slow
+    private final MobState state;
+
+    // What the nametag was built from the last time we renamed the entity
+    private int renderedHp = -1;
+    private int renderedLevel = -1;
+    private String renderedName;
+    private String renderedHpColor;
+    private String renderedNametagColor;
+
     public static String getEntityNametagColor(LivingEntity entity) {
 
         if (entity instanceof Boss)
@@ -46,11 +59,15 @@ public class LeveledLivingEntity {
         this.entity = entity;
 
         // Check if they have the stats required to exist
-        if (!entity.getPersistentDataContainer().has(MobManager.MOB_LEVEL_KEY, PersistentDataType.INTEGER))
-            setLevel(calculateDefaultEntityLevel(entity), updateStats);
-
-        if (!entity.getPersistentDataContainer().has(MobManager.MOB_NAME_KEY, PersistentDataType.STRING))
-            setName(entity.getName());
+        MobState storedState = MobState.read(entity);
+        if (storedState != null)
+            this.state = storedState;
+        else {
+            this.state = new MobState(calculateDefaultEntityLevel(entity), entity.getName());
+            state.write(entity);
+            if (updateStats)
+                setEntityAttributes(entity, state.getLevel());
+        }
 
         update();
     }
@@ -60,8 +77,8 @@ public class LeveledLivingEntity {
     }
 
     public int getLevel() {
-        // Returns the level of the mob, defaults to 1 if they didn't have a level
-        return entity.getPersistentDataContainer().getOrDefault(MobManager.MOB_LEVEL_KEY, PersistentDataType.INTEGER, 1);
+        assert isCacheConsistent() : "Cached mob state for " + entity + " does not match its persistent data";
+        return state.getLevel();
     }
 
     public void setLevel(int newLevel) {
@@ -69,44 +86,153 @@ public class LeveledLivingEntity {
     }
 
     public void setLevel(int newLevel, boolean updateStats) {
-        entity.getPersistentDataContainer().set(MobManager.MOB_LEVEL_KEY, PersistentDataType.INTEGER, newLevel);
+
+        // We don't know what this mob really is, don't re-level it
+        if (state.isReadOnly())
+            return;
+
+        if (newLevel != state.getLevel()) {
+            state.setLevel(newLevel);
+            state.write(entity);
+        }
+
         if (updateStats)
             setEntityAttributes(entity, newLevel);
     }
 
     public String getName() {
-        return entity.getPersistentDataContainer().getOrDefault(MobManager.MOB_NAME_KEY, PersistentDataType.STRING, entity.getName());
+        assert isCacheConsistent() : "Cached mob state for " + entity + " does not match its persistent data";
+        return state.getName();
     }
 
     public void setName(String newName) {
-        entity.getPersistentDataContainer().set(MobManager.MOB_NAME_KEY, PersistentDataType.STRING, newName);
+        if (newName.equals(state.getName()))
+            return;
+
+        state.setName(newName);
+        state.write(entity);
     }
 
     public CustomLeveledEntityType getCustomType() {
-        int enumIndex = entity.getPersistentDataContainer().getOrDefault(MobManager.MOB_CUSTOM_FLAG_KEY, PersistentDataType.INTEGER, -1);
+        assert isCacheConsistent() : "Cached mob state for " + entity + " does not match its persistent data";
+        return state.getCustomType();
+    }
 
-        if (enumIndex == -1)
-            return null;
+    public void setCustomType(CustomLeveledEntityType type) {
+        if (type == state.getCustomType())
+            return;
 
-        return CustomLeveledEntityType.values()[enumIndex];
+        state.setCustomType(type);
+        state.write(entity);
     }
 
-    public void setCustomType(CustomLeveledEntityType type) {
-        entity.getPersistentDataContainer().set(MobManager.MOB_CUSTOM_FLAG_KEY, PersistentDataType.INTEGER, type.ordinal());
+    /**
+     * @return Why this mob spawned, null if it spawned before we were tracking it
+     */
+    public CreatureSpawnEvent.SpawnReason getSpawnReason() {
+        return state.getSpawnReason();
     }
 
-    // Updates the entity's nametag, setting things like hp, name, or anything else we should display
-    public void update() {
-        update(0);
+    public void setSpawnReason(CreatureSpawnEvent.SpawnReason spawnReason) {
+        if (spawnReason == state.getSpawnReason())
+            return;
+
+        state.setSpawnReason(spawnReason);
+        state.write(entity);
     }
 
-    public void update(double deltaHP) {
-        if (!entity.isValid())
+    /**
+     * Remembers who tamed this mob without keeping their whole UUID around
+     *
+     * @param ownerId The UUID of the player that tamed this mob
+     */
+    public void setOwner(UUID ownerId) {
+        int ownerHash = ownerId.hashCode();
+        if (ownerHash == state.getOwnerHash())
             return;
 
-        int hp = Math.max((int) Math.round(entity.getHealth() + deltaHP), 0);
+        state.setOwnerHash(ownerHash);
+        state.write(entity);
+    }
+
+    /**
+     * Compares what we have cached against what is actually stored on the entity. Only used when assertions are
+     * enabled (-ea), since the whole point of the cache is to not read the container
+     *
+     * @return True if the cache matches the container
+     */
+    private boolean isCacheConsistent() {
+        if (state.isReadOnly())
+            return true;
+        byte[] packed = entity.getPersistentDataContainer().get(MobManager.MOB_STATE_KEY, PersistentDataType.BYTE_ARRAY);
+        return packed != null && state.equals(MobState.fromBytes(packed));
+    }
+
+    // Updates the entity's nametag, setting things like hp, name, or anything else we should display. The nametag is
+    // actually changed at the end of the tick so several updates in one tick only rename the mob once
+    public void update() {
+        MobManager mobManager = Leveled.getPlugin(Leveled.class).getMobManager();
+        if (mobManager == null)
+            renderNametag();
+        // Names are sent to each player on their own, the entity is never renamed
+        else if (mobManager.getPerViewerNametags() == null)
+            mobManager.getNametagRenderer().markDirty(this);
+    }
+
+    /**
+     * Same as update() but renames the mob right away instead of at the end of the tick, for when something later in
+     * the same tick needs to see the name (a freshly spawned mob etc)
+     */
+    public void updateNow() {
+        MobManager mobManager = Leveled.getPlugin(Leveled.class).getMobManager();
+        if (mobManager == null || mobManager.getPerViewerNametags() == null)
+            renderNametag();
+    }
+
+    /**
+     * Builds what this entity's nametag should say right now
+     */
+    public String getNametag() {
+        int hp = Math.max((int) Math.round(entity.getHealth()), 0);
+        String hpTextColor = PlayerNametags.getChatColorFromHealth(hp, entity.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue());
+        return buildNametag(getLevel(), getEntityNametagColor(entity), getName(), hpTextColor, hp);
+    }
+
+    private static String buildNametag(int level, String nametagColor, String name, String hpTextColor, int hp) {
+        return LEVEL_COLOR + "Lv. " + level + " " + nametagColor + name + " " + ChatColor.DARK_RED + "❤" + hpTextColor + hp;
+    }
+
+    /**
+     * Renames the entity right now, unless everything the nametag shows is the same as last time
+     *
+     * @return True if the entity was renamed
+     */
+    public boolean renderNametag() {
+
+        // Dying mobs still get to show their 0 HP, but don't bother with ones that were removed or unloaded
+        if (!entity.isValid() && !entity.isDead())
+            return false;
+
+        // Keep whatever name a mob we can't read already has
+        if (state.isReadOnly())
+            return false;
+
+        int hp = Math.max((int) Math.round(entity.getHealth()), 0);
+        int level = getLevel();
+        String name = getName();
         String hpTextColor = PlayerNametags.getChatColorFromHealth(hp, entity.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue());
-        entity.setCustomName(LEVEL_COLOR + "Lv. " + getLevel() + " " + getEntityNametagColor(entity) + getName() + " " + ChatColor.DARK_RED + "❤" + hpTextColor + hp);
+        String nametagColor = getEntityNametagColor(entity);
+
+        if (hp == renderedHp && level == renderedLevel && hpTextColor.equals(renderedHpColor) && nametagColor.equals(renderedNametagColor) && name.equals(renderedName))
+            return false;
+
+        entity.setCustomName(buildNametag(level, nametagColor, name, hpTextColor, hp));
+        renderedHp = hp;
+        renderedLevel = level;
+        renderedName = name;
+        renderedHpColor = hpTextColor;
+        renderedNametagColor = nametagColor;
+        return true;
     }
 
 
@@ -119,18 +245,8 @@ public class LeveledLivingEntity {
 
     public static int getAverageNearbyPlayerLevel(LivingEntity entity, int distance) {
 
-        int numPlayers = 0;
-        int numLevels = 0;
-
-        for (Player p : entity.getWorld().getNearbyPlayers(entity.getLocation(), distance)) {
-            numPlayers++;
-            numLevels += p.getLevel();
-        }
-
-        if (numPlayers == 0)
-            return 1;
-
-        return numLevels / numPlayers;
+        int averageLevel = Leveled.getPlugin(Leveled.class).getPlayerLevelGrid().getAverageLevelNearby(entity.getLocation(), distance);
+        return Math.max(1, averageLevel);
     }
 
     public static int calculateDefaultEntityLevel(LivingEntity entity) {
@@ -215,14 +331,10 @@ public class LeveledLivingEntity {
             case ENDER_DRAGON:
 
                 int level =  2;
-                int totalPlayerLevels = 0;
-                int numPlayers = entity.getWorld().getPlayers().size();
-
-                for (Player p : entity.getWorld().getPlayers())
-                    totalPlayerLevels += p.getLevel();
+                int averagePlayerLevel = Leveled.getPlugin(Leveled.class).getPlayerLevelGrid().getAverageLevel(entity.getWorld());
 
-                if (numPlayers > 0 && totalPlayerLevels / numPlayers > 68)
-                    return level + totalPlayerLevels / numPlayers;
+                if (averagePlayerLevel > 68)
+                    return level + averagePlayerLevel;
                 return 72;
 
             // Nether plains
@@ -528,7 +640,8 @@ public class LeveledLivingEntity {
             case WITHER:
             case GIANT:
                 multiplier = 150;
-                for (Player ignored : entity.getLocation().getNearbyPlayers(500))
+                int nearbyPlayers = Leveled.getPlugin(Leveled.class).getPlayerLevelGrid().getPlayerCountNearby(entity.getLocation(), 500);
+                for (int i = 0; i < nearbyPlayers; i++)
                     multiplier += Math.random() * 50 + 100;
                 break;
 
@@ -1,8 +1,11 @@
 package me.devvy.leveled.mobs;
 
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
 import me.devvy.leveled.Leveled;
 import me.devvy.leveled.mobs.custommobs.CustomLeveledEntity;
 import me.devvy.leveled.mobs.custommobs.CustomLeveledEntityType;
+import me.devvy.leveled.mobs.nametags.NametagPacketSender;
+import me.devvy.leveled.mobs.nametags.PerViewerNametagRenderer;
 import org.bukkit.*;
 import org.bukkit.block.Biome;
 import org.bukkit.entity.*;
@@ -10,8 +13,9 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.*;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.scheduler.BukkitRunnable;
 
 import java.lang.reflect.InvocationTargetException;
@@ -19,6 +23,10 @@ import java.util.*;
 
 public class MobManager implements Listener {
 
+    // Mobs have this key that holds everything we store about them, see MobState
+    public final static NamespacedKey MOB_STATE_KEY = new NamespacedKey(Leveled.getPlugin(Leveled.class), "mob-state");
+
+    // The keys below are from before everything was packed into MOB_STATE_KEY, we only read them to move mobs over
     // Mobs have this key that determines their level
     public final static NamespacedKey MOB_LEVEL_KEY = new NamespacedKey(Leveled.getPlugin(Leveled.class), "mob-level-key");
     // Mobs have this key that determines what their name is
@@ -30,59 +38,252 @@ public class MobManager implements Listener {
 
 
     private final Map<UUID, LeveledLivingEntity> entityInstanceMap = new HashMap<>();
+    private final MobNametagRenderer nametagRenderer;
+    private PerViewerNametagRenderer perViewerNametags = null;
+
+    // How long we can spend wrapping mobs from loaded chunks every tick TODO: make config option
+    private static final long HYDRATION_BUDGET_NANOS = 2_000_000;
+    private final ArrayDeque<Chunk> hydrationQueue = new ArrayDeque<>();
+    private int deferredAtStartup = 0;
+    private long hydratedChunks = 0;
+
+    // What the map looked like during the last cleanup, and how many entries we have thrown away since startup
+    private int lastTrackedCount = 0;
+    private int lastLiveCount = 0;
+    private long evictedCount = 0;
+
+    /**
+     * Entities should be removed from the map when they leave the world, but in case we miss one (a plugin removing it
+     * in some weird way, or something we haven't thought of) we sweep the map for invalid entities every so often
+     */
+    private class CleanupTask extends BukkitRunnable {
+
+        @Override
+        public void run() {
+            cleanup();
+        }
+    }
+
+    /**
+     * Mobs that were already in the world when we started, or that come back when their chunk loads, are wrapped a
+     * little at a time so we never stall the server by doing a whole world at once
+     */
+    private class HydrationTask extends BukkitRunnable {
+
+        @Override
+        public void run() {
+            drainHydrationQueue();
+        }
+    }
 
     /**
-     * We need to make our plugin able to recover on a world that already has entities setup.
+     * We need to make our plugin able to recover on a world that already has entities setup. Instead of wrapping every
+     * entity right now, the loaded chunks are queued and worked through over the next few ticks. Anything that is
+     * touched before its chunk gets its turn is wrapped on the spot by getLeveledEntity
      *
      * @param worlds - A list of World objects that are currently on the server
      */
     public MobManager(List<World> worlds) {
 
         Leveled plugin = Leveled.getPlugin(Leveled.class);
+        nametagRenderer = new MobNametagRenderer(plugin);
 
-        // Loop through all the worlds
         plugin.getLogger().info("Starting mob manager...");
-        int times = 0;
         long start = System.currentTimeMillis();
-        for (World w : worlds) {
-            // Loop through all the entities
-            for (LivingEntity e : w.getEntitiesByClass(LivingEntity.class)) {
-
-                if (e instanceof Player || e instanceof ArmorStand)
-                    continue;
-
-                times++;
-
-                LeveledLivingEntity entityInstance;
-
-                // If we have a custom entity, we need to instantiate that
-                if (e.getPersistentDataContainer().has(MOB_CUSTOM_FLAG_KEY, PersistentDataType.INTEGER) && e.getPersistentDataContainer().get(MOB_CUSTOM_FLAG_KEY, PersistentDataType.INTEGER) != -1) {
-                    // Get the type of mob
-                    CustomLeveledEntityType type = CustomLeveledEntityType.values()[e.getPersistentDataContainer().get(MOB_CUSTOM_FLAG_KEY, PersistentDataType.INTEGER)];
-                    // Attempt to instantiate the custom mob
-                    try {
-                        entityInstance = type.CLAZZ.getDeclaredConstructor(LivingEntity.class).newInstance(e);
-                    } catch (IllegalAccessException | InstantiationException | NoSuchMethodException | InvocationTargetException error) {
-                        error.printStackTrace();
-                        e.remove();
-                        continue;
-                    }
-                    // We know it's going to be custom since all classes defined in the enum extend custom mob, set it up
-                    ((CustomLeveledEntity) entityInstance).setup();
-                } else
-                    entityInstance = new LeveledLivingEntity(e, true);
-
-                // Good to insert
-                entityInstanceMap.put(e.getUniqueId(), entityInstance);
-            }
+        for (World w : worlds)
+            hydrationQueue.addAll(Arrays.asList(w.getLoadedChunks()));
+
+        deferredAtStartup = hydrationQueue.size();
+        plugin.getLogger().info("Finished Mob Manager startup! " + deferredAtStartup + " loaded chunks of mobs deferred: " + (System.currentTimeMillis() - start) + "ms");
+
+        new HydrationTask().runTaskTimer(plugin, 1, 1);
+        new CleanupTask().runTaskTimer(plugin, MOB_CLEANUP_DELAY, MOB_CLEANUP_DELAY);
+    }
+
+    /**
+     * Wraps queued chunks until we run out of chunks or go over our budget for this tick
+     */
+    private void drainHydrationQueue() {
+
+        if (hydrationQueue.isEmpty())
+            return;
+
+        long deadline = System.nanoTime() + HYDRATION_BUDGET_NANOS;
+        while (!hydrationQueue.isEmpty() && System.nanoTime() < deadline) {
+
+            Chunk chunk = hydrationQueue.poll();
+            if (!chunk.isLoaded())
+                continue;
+
+            for (Entity entity : chunk.getEntities())
+                if (entity instanceof LivingEntity)
+                    hydrate((LivingEntity) entity);
+
+            hydratedChunks++;
         }
-        plugin.getLogger().info("Finished Mob Manager startup! " + times + " mobs successfully checked: " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * Wraps an entity that is already in the world if we aren't tracking it yet
+     */
+    private void hydrate(LivingEntity entity) {
+
+        if (entity instanceof Player || entity instanceof ArmorStand || !entity.isValid())
+            return;
+
+        LeveledLivingEntity entityInstance = entityInstanceMap.get(entity.getUniqueId());
+        if (entityInstance == null || entityInstance.getEntity() != entity) {
+            entityInstance = createInstance(entity);
+            if (entityInstance == null)
+                return;
+            entityInstanceMap.put(entity.getUniqueId(), entityInstance);
+        }
+
+        // Pets are picked up here too so they are caught up to their owner under the same budget
+        PetManager petManager = Leveled.getPlugin(Leveled.class).getPetManager();
+        if (petManager != null)
+            petManager.indexPet(entityInstance);
+    }
+
+    /**
+     * Wraps an entity, if it was marked as a custom mob the custom mob class is instantiated and restored, its stats
+     * and gear were already set up when it first spawned
+     *
+     * @param e The entity to wrap
+     * @return The wrapped entity, null if it was a custom mob that could not be setup (the entity is removed)
+     */
+    private LeveledLivingEntity createInstance(LivingEntity e) {
+
+        MobState state = MobState.read(e);
+
+        // If we have a custom entity, we need to instantiate that
+        if (state == null || state.getCustomType() == null)
+            return new LeveledLivingEntity(e, true);
+
+        // Get the type of mob
+        CustomLeveledEntityType type = state.getCustomType();
+        // Attempt to instantiate the custom mob
+        CustomLeveledEntity entityInstance;
+        try {
+            entityInstance = type.CLAZZ.getDeclaredConstructor(LivingEntity.class).newInstance(e);
+        } catch (IllegalAccessException | InstantiationException | NoSuchMethodException | InvocationTargetException error) {
+            error.printStackTrace();
+            e.remove();
+            return null;
+        }
+        // We know it's going to be custom since all classes defined in the enum extend custom mob, bring back what it lost
+        entityInstance.restore();
+        return entityInstance;
+    }
+
+    /**
+     * @return How many loaded chunks were left for later when we started up instead of being scanned right away
+     */
+    public int getDeferredAtStartup() {
+        return deferredAtStartup;
+    }
+
+    /**
+     * @return How many chunks are still waiting to have their mobs wrapped
+     */
+    public int getQueuedChunks() {
+        return hydrationQueue.size();
+    }
+
+    /**
+     * @return How many chunks have had their mobs wrapped since startup
+     */
+    public long getHydratedChunks() {
+        return hydratedChunks;
     }
 
     public Map<UUID, LeveledLivingEntity> getEntityInstanceMap() {
         return entityInstanceMap;
     }
 
+    public MobNametagRenderer getNametagRenderer() {
+        return nametagRenderer;
+    }
+
+    /**
+     * Switches from renaming mobs on the server to sending each player the names of the mobs near them. There is no
+     * way to send a name to just one player with the Bukkit API, so something has to give us a packet sender first
+     *
+     * @param sender Sends nametag packets to a single player
+     * @param viewRadius How close a mob has to be for a player to see its name
+     * @param targetRange How far away the mob a player is looking at can be and still show its name
+     * @param maxUpdatesPerRefresh How many names a player can be sent every refresh
+     */
+    public void enablePerViewerNametags(NametagPacketSender sender, double viewRadius, int targetRange, int maxUpdatesPerRefresh) {
+
+        if (perViewerNametags != null)
+            return;
+
+        Leveled plugin = Leveled.getPlugin(Leveled.class);
+        perViewerNametags = new PerViewerNametagRenderer(plugin, this, sender, viewRadius, targetRange, maxUpdatesPerRefresh);
+        plugin.getServer().getPluginManager().registerEvents(perViewerNametags, plugin);
+    }
+
+    /**
+     * @return The per player nametag renderer, null if mobs are being renamed on the server
+     */
+    public PerViewerNametagRenderer getPerViewerNametags() {
+        return perViewerNametags;
+    }
+
+    /**
+     * Removes every entity we are tracking that is no longer in a world
+     */
+    public void cleanup() {
+
+        lastTrackedCount = entityInstanceMap.size();
+        Iterator<LeveledLivingEntity> iterator = entityInstanceMap.values().iterator();
+        while (iterator.hasNext()) {
+            if (!iterator.next().getEntity().isValid()) {
+                iterator.remove();
+                evictedCount++;
+            }
+        }
+        lastLiveCount = entityInstanceMap.size();
+    }
+
+    /**
+     * @return How many entities we were tracking when the last cleanup started
+     */
+    public int getLastTrackedCount() {
+        return lastTrackedCount;
+    }
+
+    /**
+     * @return How many of the tracked entities were still alive after the last cleanup
+     */
+    public int getLastLiveCount() {
+        return lastLiveCount;
+    }
+
+    /**
+     * @return How many entities have been removed from the map since startup, not counting deaths
+     */
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+
+    /**
+     * Stops tracking an entity, but only if the instance we have is for that exact entity. Entities that change
+     * worlds are copied with the same UUID, so the old copy can leave after the new one has already been tracked
+     *
+     * @param entity The entity that is going away
+     */
+    private void evict(Entity entity) {
+
+        LeveledLivingEntity entityInstance = entityInstanceMap.get(entity.getUniqueId());
+        if (entityInstance == null || entityInstance.getEntity() != entity)
+            return;
+
+        entityInstanceMap.remove(entity.getUniqueId());
+        evictedCount++;
+    }
+
     /**
      * Can be used to spawn a mob with a pre-determined level, overriding natural flow for a normal mob spawn
      *
@@ -98,9 +299,10 @@ public class MobManager implements Listener {
         LivingEntity entity = (LivingEntity) location.getWorld().spawn(location, entityType.getEntityClass());
         LeveledLivingEntity leveledEntityInstance = new LeveledLivingEntity(entity, true);
 
+        leveledEntityInstance.setSpawnReason(CreatureSpawnEvent.SpawnReason.CUSTOM);
         leveledEntityInstance.setLevel(level, true);
         leveledEntityInstance.setName(name);
-        leveledEntityInstance.update();
+        leveledEntityInstance.updateNow();
         entityInstanceMap.put(entity.getUniqueId(), leveledEntityInstance);
 
         return leveledEntityInstance;
@@ -118,10 +320,12 @@ public class MobManager implements Listener {
 
         try { customLeveledEntity = type.CLAZZ.getDeclaredConstructor(LivingEntity.class).newInstance(entity); } catch (IllegalAccessException | InstantiationException | NoSuchMethodException | InvocationTargetException e) {e.printStackTrace();entity.remove();return null;}
         customLeveledEntity.setCustomType(type);
+        customLeveledEntity.setSpawnReason(CreatureSpawnEvent.SpawnReason.CUSTOM);
         customLeveledEntity.setLevel(level);  // NOTE: notice how we aren't forcing attributes to update here, this is so we have full control over the entities stats when setting it up
         customLeveledEntity.setName(type.NAME);
-        customLeveledEntity.update();
+        customLeveledEntity.updateNow();
         customLeveledEntity.setup();
+        customLeveledEntity.restore();
         entityInstanceMap.put(entity.getUniqueId(), customLeveledEntity);
 
         return customLeveledEntity;
@@ -140,10 +344,17 @@ public class MobManager implements Listener {
     }
 
     public LeveledLivingEntity getLeveledEntity(LivingEntity livingEntity) {
-        if (entityInstanceMap.containsKey(livingEntity.getUniqueId()))
-            return entityInstanceMap.get(livingEntity.getUniqueId());
+        LeveledLivingEntity entityInstance = entityInstanceMap.get(livingEntity.getUniqueId());
+
+        // If it's holding onto an old copy of the entity (it changed worlds) make a new one
+        if (entityInstance != null && entityInstance.getEntity() == livingEntity)
+            return entityInstance;
+
+        // First time we've touched this entity, its chunk might still be waiting in the hydration queue
+        LeveledLivingEntity leveledLivingEntity = createInstance(livingEntity);
+        if (leveledLivingEntity == null)
+            return new LeveledLivingEntity(livingEntity, true);
 
-        LeveledLivingEntity leveledLivingEntity = new LeveledLivingEntity(livingEntity, true);
         leveledLivingEntity.update();
         entityInstanceMap.put(livingEntity.getUniqueId(), leveledLivingEntity);
         return leveledLivingEntity;
@@ -167,7 +378,8 @@ public class MobManager implements Listener {
             return;
 
         LeveledLivingEntity leveledLivingEntity = new LeveledLivingEntity(event.getEntity(), true);
-        leveledLivingEntity.update();
+        leveledLivingEntity.setSpawnReason(event.getSpawnReason());
+        leveledLivingEntity.updateNow();
         entityInstanceMap.put(event.getEntity().getUniqueId(), leveledLivingEntity);
     }
 
@@ -187,7 +399,7 @@ public class MobManager implements Listener {
         if (event.getEntity() instanceof Player || event.getEntity() instanceof ArmorStand)
             return;
 
-        getLeveledEntity((LivingEntity) event.getEntity()).update(event.getFinalDamage() * -1);
+        getLeveledEntity((LivingEntity) event.getEntity()).update();
     }
 
     @EventHandler
@@ -201,7 +413,7 @@ public class MobManager implements Listener {
         if (event.getEntity() instanceof Player || event.getEntity() instanceof ArmorStand)
             return;
 
-        getLeveledEntity((LivingEntity) event.getEntity()).update(event.getAmount());
+        getLeveledEntity((LivingEntity) event.getEntity()).update();
 
     }
 
@@ -229,6 +441,41 @@ public class MobManager implements Listener {
         entityInstanceMap.remove(event.getEntity().getUniqueId());
     }
 
+    /**
+     * Stops tracking entities when they despawn, change worlds or are removed by anything else
+     *
+     * @param event EntityRemoveFromWorldEvent
+     */
+    @EventHandler
+    public void onEntityRemovedFromWorld(EntityRemoveFromWorldEvent event) {
+        if (event.getEntity() instanceof LivingEntity)
+            evict(event.getEntity());
+    }
+
+    /**
+     * Mobs saved in a chunk come back when it loads, queue them up to be wrapped
+     *
+     * @param event ChunkLoadEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        // Brand new chunks have their mobs spawned through CreatureSpawnEvent
+        if (!event.isNewChunk())
+            hydrationQueue.add(event.getChunk());
+    }
+
+    /**
+     * Stops tracking entities in chunks that unload, they are picked up again when they are touched after loading
+     *
+     * @param event ChunkUnloadEvent
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        for (Entity entity : event.getChunk().getEntities())
+            if (entity instanceof LivingEntity)
+                evict(entity);
+    }
+
     /**
      * Updates the level of a mob when tamed to the level of the owner
      *
@@ -243,6 +490,7 @@ public class MobManager implements Listener {
                 @Override
                 public void run() {
                     int newEntitylevel = ((Player)event.getOwner()).getLevel();  // Gets the level of the player who tamed
+                    getLeveledEntity(event.getEntity()).setOwner(event.getOwner().getUniqueId());
                     getLeveledEntity(event.getEntity()).setLevel(newEntitylevel, true);
                     getLeveledEntity(event.getEntity()).update();
                     event.getEntity().getWorld().playSound(event.getEntity().getLocation(), Sound.ENTITY_PLAYER_LEVELUP, .5f, .5f);
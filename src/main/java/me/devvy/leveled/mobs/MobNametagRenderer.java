@@ -0,0 +1,87 @@
+package me.devvy.leveled.mobs;
+
+import me.devvy.leveled.Leveled;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.LinkedHashSet;
+
+/**
+ * Renames mobs at most once a tick. A mob getting hit by a sweep, fire and poison in the same tick used to be renamed
+ * for each one, and every rename is a packet to everyone who can see it. Now anything that changes a mob's nametag
+ * just marks it, and at the end of the tick each marked mob is rendered once
+ */
+public class MobNametagRenderer {
+
+    private final Leveled plugin;
+    private final LinkedHashSet<LeveledLivingEntity> dirtyMobs;
+    private boolean flushScheduled;
+
+    private long sentUpdates;
+    private long suppressedUpdates;
+
+    private class FlushTask extends BukkitRunnable {
+
+        @Override
+        public void run() {
+            flushScheduled = false;
+            flush();
+        }
+    }
+
+    public MobNametagRenderer(Leveled plugin) {
+        this.plugin = plugin;
+        this.dirtyMobs = new LinkedHashSet<>();
+        this.flushScheduled = false;
+    }
+
+    /**
+     * Marks a mob's nametag to be rendered at the end of the tick
+     *
+     * @param mob The mob whose nametag might have changed
+     */
+    public void markDirty(LeveledLivingEntity mob) {
+
+        // Already waiting to be rendered this tick
+        if (!dirtyMobs.add(mob))
+            suppressedUpdates++;
+
+        if (!flushScheduled) {
+            flushScheduled = true;
+            new FlushTask().runTask(plugin);
+        }
+    }
+
+    /**
+     * Renders every marked mob right now
+     */
+    public void flush() {
+
+        if (dirtyMobs.isEmpty())
+            return;
+
+        LeveledLivingEntity[] toRender = dirtyMobs.toArray(new LeveledLivingEntity[0]);
+        dirtyMobs.clear();
+
+        for (LeveledLivingEntity mob : toRender) {
+            if (mob.renderNametag())
+                sentUpdates++;
+            else
+                suppressedUpdates++;
+        }
+    }
+
+    /**
+     * @return How many times a mob was actually renamed
+     */
+    public long getSentUpdates() {
+        return sentUpdates;
+    }
+
+    /**
+     * @return How many nametag updates were merged into another one or skipped because nothing visible changed
+     */
+    public long getSuppressedUpdates() {
+        return suppressedUpdates;
+    }
+
+}
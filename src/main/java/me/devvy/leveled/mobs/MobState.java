@@ -0,0 +1,218 @@
+package me.devvy.leveled.mobs;
+
+import me.devvy.leveled.Leveled;
+import me.devvy.leveled.mobs.custommobs.CustomLeveledEntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Everything we store on a mob, packed into a single byte array under one key instead of a tag per field. Mobs that
+ * still have the old separate keys are moved over to the packed record the first time they are read
+ *
+ * Layout (version 1): [version byte][level int][custom type short][flags byte][spawn reason byte][owner hash int]
+ * [name length short][name utf-8 bytes]
+ *
+ * No flags are used yet, the byte is kept as is so we have room for some later without a new version. A record we
+ * can't read (a newer version after a downgrade, or a corrupt one) is never written over, see isReadOnly
+ */
+public final class MobState {
+
+    private static final byte VERSION = 1;
+    private static final int FIXED_SIZE = 1 + 4 + 2 + 1 + 1 + 4 + 2;
+
+    private static final CustomLeveledEntityType[] CUSTOM_TYPES = CustomLeveledEntityType.values();
+    private static final CreatureSpawnEvent.SpawnReason[] SPAWN_REASONS = CreatureSpawnEvent.SpawnReason.values();
+
+    private int level;
+    private String name;
+    private CustomLeveledEntityType customType;
+    private byte flags;
+    private CreatureSpawnEvent.SpawnReason spawnReason;
+    private int ownerHash;
+
+    // Set when the record on the mob couldn't be read, so we don't replace it with a made up one
+    private boolean readOnly;
+    private static boolean warnedUnreadable = false;
+
+    public MobState(int level, String name) {
+        this.level = level;
+        this.name = name;
+    }
+
+    /**
+     * Reads the state stored on a mob, moving it over from the old keys if it was saved before we packed them
+     *
+     * @param entity The mob to read
+     * @return The mob's state, null if nothing was ever stored on it. If something is stored but we can't read it the
+     * state is read only and just holds placeholders
+     */
+    public static MobState read(LivingEntity entity) {
+
+        PersistentDataContainer container = entity.getPersistentDataContainer();
+        byte[] packed = container.get(MobManager.MOB_STATE_KEY, PersistentDataType.BYTE_ARRAY);
+        if (packed != null) {
+            MobState state = fromBytes(packed);
+            if (state != null)
+                return state;
+
+            if (!warnedUnreadable) {
+                warnedUnreadable = true;
+                Leveled.getPlugin(Leveled.class).getLogger().warning("Found a mob (" + entity.getType() + " at " + entity.getLocation().toVector() + ") with saved state we can't read (version " + (packed.length > 0 ? packed[0] : "?") + "), it is being left alone. Other mobs like this won't be logged");
+            }
+
+            MobState unreadable = new MobState(1, entity.getName());
+            unreadable.readOnly = true;
+            return unreadable;
+        }
+
+        if (!container.has(MobManager.MOB_LEVEL_KEY, PersistentDataType.INTEGER))
+            return null;
+
+        MobState state = new MobState(
+                container.getOrDefault(MobManager.MOB_LEVEL_KEY, PersistentDataType.INTEGER, 1),
+                container.getOrDefault(MobManager.MOB_NAME_KEY, PersistentDataType.STRING, entity.getName())
+        );
+        int customIndex = container.getOrDefault(MobManager.MOB_CUSTOM_FLAG_KEY, PersistentDataType.INTEGER, -1);
+        state.customType = customIndex >= 0 && customIndex < CUSTOM_TYPES.length ? CUSTOM_TYPES[customIndex] : null;
+
+        state.write(entity);
+        container.remove(MobManager.MOB_LEVEL_KEY);
+        container.remove(MobManager.MOB_NAME_KEY);
+        container.remove(MobManager.MOB_CUSTOM_FLAG_KEY);
+        return state;
+    }
+
+    /**
+     * Stores this state on a mob, replacing whatever was there
+     *
+     * @param entity The mob to write to
+     */
+    public void write(LivingEntity entity) {
+        if (readOnly)
+            return;
+        entity.getPersistentDataContainer().set(MobManager.MOB_STATE_KEY, PersistentDataType.BYTE_ARRAY, toBytes());
+    }
+
+    public byte[] toBytes() {
+
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        int nameLength = Math.min(nameBytes.length, 0xFFFF);
+
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_SIZE + nameLength);
+        buffer.put(VERSION);
+        buffer.putInt(level);
+        buffer.putShort((short) (customType != null ? customType.ordinal() : -1));
+        buffer.put(flags);
+        buffer.put((byte) (spawnReason != null ? spawnReason.ordinal() : -1));
+        buffer.putInt(ownerHash);
+        buffer.putShort((short) nameLength);
+        buffer.put(nameBytes, 0, nameLength);
+        return buffer.array();
+    }
+
+    /**
+     * @param packed A record made by toBytes
+     * @return The state in the record, null if the record is from a version we don't know or is cut off
+     */
+    public static MobState fromBytes(byte[] packed) {
+
+        ByteBuffer buffer = ByteBuffer.wrap(packed);
+        try {
+            if (buffer.get() != VERSION)
+                return null;
+
+            int level = buffer.getInt();
+            short customIndex = buffer.getShort();
+            byte flags = buffer.get();
+            byte spawnReasonIndex = buffer.get();
+            int ownerHash = buffer.getInt();
+            byte[] nameBytes = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(nameBytes);
+
+            MobState state = new MobState(level, new String(nameBytes, StandardCharsets.UTF_8));
+            state.customType = customIndex >= 0 && customIndex < CUSTOM_TYPES.length ? CUSTOM_TYPES[customIndex] : null;
+            state.flags = flags;
+            state.spawnReason = spawnReasonIndex >= 0 && spawnReasonIndex < SPAWN_REASONS.length ? SPAWN_REASONS[spawnReasonIndex] : null;
+            state.ownerHash = ownerHash;
+            return state;
+        } catch (BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public CustomLeveledEntityType getCustomType() {
+        return customType;
+    }
+
+    public void setCustomType(CustomLeveledEntityType customType) {
+        this.customType = customType;
+    }
+
+    /**
+     * @return True if the mob has a record we couldn't read, nothing about this mob should be changed or saved
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * @return Why the mob spawned, null if we weren't around when it did
+     */
+    public CreatureSpawnEvent.SpawnReason getSpawnReason() {
+        return spawnReason;
+    }
+
+    public void setSpawnReason(CreatureSpawnEvent.SpawnReason spawnReason) {
+        this.spawnReason = spawnReason;
+    }
+
+    /**
+     * @return The hash of the UUID of whoever tamed this mob, 0 if it was never tamed
+     */
+    public int getOwnerHash() {
+        return ownerHash;
+    }
+
+    public void setOwnerHash(int ownerHash) {
+        this.ownerHash = ownerHash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof MobState))
+            return false;
+
+        MobState other = (MobState) o;
+        return level == other.level && flags == other.flags && ownerHash == other.ownerHash && customType == other.customType && spawnReason == other.spawnReason && name.equals(other.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(level, name, customType, flags, spawnReason, ownerHash);
+    }
+}
@@ -0,0 +1,186 @@
+package me.devvy.leveled.mobs;
+
+import me.devvy.leveled.Leveled;
+import me.devvy.leveled.profile.OfflineStats;
+import org.bukkit.entity.AnimalTamer;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Tameable;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.entity.EntityTameEvent;
+import org.bukkit.event.player.PlayerLevelChangeEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.*;
+
+/**
+ * Keeps tamed pets at the same level as their owner. We index every loaded pet by its owner's UUID so a level up only
+ * has to touch that owner's pets instead of every entity on the server. We don't scan for pets ourselves, MobManager
+ * hands us every mob it wraps from a loaded chunk, so pets that were in unloaded chunks while their owner leveled up
+ * are caught up when their chunk gets hydrated
+ */
+public class PetManager implements Listener {
+
+    private final Leveled plugin;
+    private final Map<UUID, Set<UUID>> petsByOwner;
+    private final Map<UUID, UUID> ownerByPet;
+
+    public PetManager(Leveled plugin) {
+        this.plugin = plugin;
+        this.petsByOwner = new HashMap<>();
+        this.ownerByPet = new HashMap<>();
+    }
+
+    /**
+     * @param entity Any entity
+     * @return The UUID of the entity's owner if it is a tamed pet, null if it isn't
+     */
+    private UUID getOwnerId(Entity entity) {
+
+        if (!(entity instanceof Tameable) || !((Tameable) entity).isTamed())
+            return null;
+
+        AnimalTamer owner = ((Tameable) entity).getOwner();
+        return owner != null ? owner.getUniqueId() : null;
+    }
+
+    private void addPet(UUID ownerId, UUID petId) {
+
+        UUID previousOwner = ownerByPet.put(petId, ownerId);
+        if (previousOwner != null && !previousOwner.equals(ownerId))
+            removePet(previousOwner, petId);
+
+        petsByOwner.computeIfAbsent(ownerId, k -> new HashSet<>()).add(petId);
+    }
+
+    private void removePet(UUID ownerId, UUID petId) {
+
+        Set<UUID> pets = petsByOwner.get(ownerId);
+        if (pets == null)
+            return;
+
+        pets.remove(petId);
+        if (pets.isEmpty())
+            petsByOwner.remove(ownerId);
+    }
+
+    private void removePet(UUID petId) {
+        UUID ownerId = ownerByPet.remove(petId);
+        if (ownerId != null)
+            removePet(ownerId, petId);
+    }
+
+    /**
+     * Gets the level an owner's pets should be, works whether the owner is online or not
+     *
+     * @param ownerId The UUID of the owner
+     * @return The owner's level, -1 if we don't know it
+     */
+    private int getOwnerLevel(UUID ownerId) {
+
+        Player owner = plugin.getServer().getPlayer(ownerId);
+        if (owner != null)
+            return owner.getLevel();
+
+        OfflineStats stats = plugin.getStatsIndex().getStats(ownerId);
+        return stats != null ? stats.getLevel() : -1;
+    }
+
+    /**
+     * Brings a pet to its owner's level if it isn't already there
+     */
+    private void rescale(LeveledLivingEntity leveledPet, int ownerLevel) {
+
+        if (ownerLevel < 1 || !leveledPet.getEntity().isValid())
+            return;
+
+        if (leveledPet.getLevel() == ownerLevel)
+            return;
+
+        leveledPet.setLevel(ownerLevel, true);
+        leveledPet.update();
+    }
+
+    /**
+     * Indexes a mob if it is a pet and catches it up to its owner's level, MobManager calls this for every mob it
+     * wraps from a loaded chunk
+     *
+     * @param mob The mob that was just wrapped
+     */
+    public void indexPet(LeveledLivingEntity mob) {
+
+        UUID ownerId = getOwnerId(mob.getEntity());
+        if (ownerId == null)
+            return;
+
+        addPet(ownerId, mob.getEntity().getUniqueId());
+        rescale(mob, getOwnerLevel(ownerId));
+    }
+
+    /**
+     * @param ownerId The UUID of a player
+     * @return The UUIDs of that player's pets that are currently loaded
+     */
+    public Set<UUID> getLoadedPets(UUID ownerId) {
+        return Collections.unmodifiableSet(petsByOwner.getOrDefault(ownerId, Collections.emptySet()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityTamed(EntityTameEvent event) {
+
+        if (!(event.getOwner() instanceof Player))
+            return;
+
+        // The entity isn't actually tamed until after this event, MobManager sets its level a tick later too
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                if (event.getEntity().isValid())
+                    addPet(event.getOwner().getUniqueId(), event.getEntity().getUniqueId());
+            }
+        }.runTaskLater(plugin, 1);
+    }
+
+    @EventHandler
+    public void onPetDeath(EntityDeathEvent event) {
+        removePet(event.getEntity().getUniqueId());
+    }
+
+    @EventHandler
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        for (Entity entity : event.getChunk().getEntities())
+            if (entity instanceof Tameable)
+                removePet(entity.getUniqueId());
+    }
+
+    /**
+     * Only the owner's loaded pets are touched here, the rest are caught up when they load in
+     *
+     * @param event The PlayerLevelChangeEvent we are listening to
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onOwnerLevelChange(PlayerLevelChangeEvent event) {
+
+        Set<UUID> pets = petsByOwner.get(event.getPlayer().getUniqueId());
+        if (pets == null)
+            return;
+
+        // Copy since a pet we can't find anymore is removed from the set
+        for (UUID petId : new ArrayList<>(pets)) {
+
+            Entity pet = plugin.getServer().getEntity(petId);
+            if (!(pet instanceof LivingEntity) || !pet.isValid()) {
+                removePet(petId);
+                continue;
+            }
+
+            rescale(plugin.getMobManager().getLeveledEntity((LivingEntity) pet), event.getNewLevel());
+        }
+    }
+
+}
@@ -10,7 +10,6 @@ public abstract class CustomLeveledEntity extends LeveledLivingEntity {
     public CustomLeveledEntity(LivingEntity entity, CustomLeveledEntityLootTable lootTable) {
         super(entity, false);
         this.lootTable = lootTable;
-        setup();
     }
 
     public CustomLeveledEntity(LivingEntity entity) {
@@ -24,7 +23,15 @@ public abstract class CustomLeveledEntity extends LeveledLivingEntity {
     public abstract CustomLeveledEntityType getCustomMobType();
 
     /**
-     * Any custom logic that we should run on the mob
+     * Any custom logic that we should run on the mob when it first spawns, rolling its stats and gear etc. This is
+     * only ever called once per mob, restore() is called right after it
      */
     public abstract void setup();
+
+    /**
+     * Sets back up anything that isn't saved on the entity itself (loot tables, tasks) when we wrap a custom mob that
+     * already exists, like when its chunk loads back in. Don't roll anything in here, the mob keeps what it had
+     */
+    public void restore() {
+    }
 }
@@ -2,6 +2,7 @@ package me.devvy.leveled.mobs.custommobs;
 
 import me.devvy.leveled.Leveled;
 import me.devvy.leveled.items.CustomItemType;
+import org.bukkit.Material;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.inventory.ItemStack;
 
@@ -46,11 +47,27 @@ public class CustomLeveledEntityZombieMiner extends CustomLeveledEntity {
         entity.getEquipment().setChestplateDropChance(0);
         entity.getEquipment().setLeggingsDropChance(0);
         entity.getEquipment().setBootsDropChance(0);
+    }
+
+    /**
+     * The miner can drop any of the gear it's wearing, so we build the loot table from whatever it has on
+     */
+    @Override
+    public void restore() {
+
+        ItemStack[] items = new ItemStack[]{
+                                entity.getEquipment().getItemInMainHand(),
+                                entity.getEquipment().getHelmet(),
+                                entity.getEquipment().getChestplate(),
+                                entity.getEquipment().getLeggings(),
+                                entity.getEquipment().getBoots()
+        };
 
         lootTable = new CustomLeveledEntityLootTable();
         List<CustomLeveledEntityLootTableItem> lootDrops = new ArrayList<>();
         for (ItemStack gear : items)
-            lootDrops.add(new CustomLeveledEntityLootTableItem(gear, .05f));
+            if (gear != null && gear.getType() != Material.AIR)
+                lootDrops.add(new CustomLeveledEntityLootTableItem(gear.clone(), .05f));
         lootTable.setPossibleItems(lootDrops);
     }
 }
@@ -0,0 +1,29 @@
+package me.devvy.leveled.mobs.nametags;
+
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+
+/**
+ * Sends a mob's nametag to a single player without touching the entity on the server. Bukkit has no way to do this,
+ * so whatever implements this has to build the entity metadata packets itself, see ProtocolLibNametagSender
+ */
+public interface NametagPacketSender {
+
+    /**
+     * Shows a name above a mob for one player
+     *
+     * @param viewer The player that should see the name
+     * @param entity The mob to show the name above
+     * @param name The name to show
+     */
+    void sendName(Player viewer, LivingEntity entity, String name);
+
+    /**
+     * Puts the mob back to how the server has it for one player
+     *
+     * @param viewer The player that shouldn't see the name anymore
+     * @param entity The mob to reset
+     */
+    void clearName(Player viewer, LivingEntity entity);
+
+}
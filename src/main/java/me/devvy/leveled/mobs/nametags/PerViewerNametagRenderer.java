@@ -0,0 +1,168 @@
+package me.devvy.leveled.mobs.nametags;
+
+import me.devvy.leveled.Leveled;
+import me.devvy.leveled.mobs.MobManager;
+import org.bukkit.entity.ArmorStand;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Instead of renaming mobs on the server, which sends the new name to everyone tracking the mob no matter how far away
+ * they are, this sends each player only the names of mobs close enough to read, or the mob they are looking at. Every
+ * player is looked at every few ticks and only gets so many name changes at a time
+ */
+public class PerViewerNametagRenderer implements Listener {
+
+    private static final int REFRESH_INTERVAL_TICKS = 4;
+
+    private final Leveled plugin;
+    private final MobManager mobManager;
+    private final NametagPacketSender sender;
+    private final double viewRadius;
+    private final int targetRange;
+    private final int maxUpdatesPerRefresh;  // Per viewer, anything over this waits for the next refresh
+
+    // The name each player was last sent for each mob, by player UUID and then mob UUID
+    private final HashMap<UUID, HashMap<UUID, String>> sentNames;
+
+    private long sentUpdates;
+    private long deferredUpdates;
+
+    private class RefreshTask extends BukkitRunnable {
+
+        @Override
+        public void run() {
+            for (Player viewer : plugin.getServer().getOnlinePlayers())
+                refresh(viewer);
+        }
+    }
+
+    /**
+     * @param viewRadius How close a mob has to be for a player to see its name
+     * @param targetRange How far away the mob a player is looking at can be and still show its name
+     * @param maxUpdatesPerRefresh How many names a player can be sent every refresh
+     */
+    public PerViewerNametagRenderer(Leveled plugin, MobManager mobManager, NametagPacketSender sender, double viewRadius, int targetRange, int maxUpdatesPerRefresh) {
+        this.plugin = plugin;
+        this.mobManager = mobManager;
+        this.sender = sender;
+        this.viewRadius = viewRadius;
+        this.targetRange = targetRange;
+        this.maxUpdatesPerRefresh = maxUpdatesPerRefresh;
+        this.sentNames = new HashMap<>();
+
+        new RefreshTask().runTaskTimer(plugin, REFRESH_INTERVAL_TICKS, REFRESH_INTERVAL_TICKS);
+    }
+
+    private boolean hasNametag(Entity entity) {
+        return entity instanceof LivingEntity && !(entity instanceof Player) && !(entity instanceof ArmorStand);
+    }
+
+    /**
+     * Sends a player the names of mobs that came into view or changed, and clears the names of mobs that left view
+     */
+    private void refresh(Player viewer) {
+
+        HashMap<UUID, String> sent = sentNames.computeIfAbsent(viewer.getUniqueId(), k -> new HashMap<>());
+        HashSet<UUID> visible = new HashSet<>();
+        int budget = maxUpdatesPerRefresh;
+
+        Entity target = viewer.getTargetEntity(targetRange);
+        if (hasNametag(target))
+            budget = show(viewer, (LivingEntity) target, sent, visible, budget);
+
+        for (LivingEntity mob : viewer.getWorld().getNearbyLivingEntities(viewer.getLocation(), viewRadius))
+            if (hasNametag(mob))
+                budget = show(viewer, mob, sent, visible, budget);
+
+        // Anything we sent that isn't visible anymore goes back to what the server has
+        Iterator<Map.Entry<UUID, String>> iterator = sent.entrySet().iterator();
+        while (iterator.hasNext()) {
+
+            UUID mobId = iterator.next().getKey();
+            if (visible.contains(mobId))
+                continue;
+
+            if (budget <= 0) {
+                deferredUpdates++;
+                continue;
+            }
+
+            Entity mob = plugin.getServer().getEntity(mobId);
+            if (mob instanceof LivingEntity && mob.isValid())
+                sender.clearName(viewer, (LivingEntity) mob);
+            iterator.remove();
+            budget--;
+        }
+    }
+
+    /**
+     * Sends a mob's name to a player if it is different than what they were sent last
+     *
+     * @return How many more updates the player can be sent this refresh
+     */
+    private int show(Player viewer, LivingEntity mob, HashMap<UUID, String> sent, HashSet<UUID> visible, int budget) {
+
+        if (!visible.add(mob.getUniqueId()))
+            return budget;
+
+        String name = mobManager.getLeveledEntity(mob).getNametag();
+        if (name.equals(sent.get(mob.getUniqueId())))
+            return budget;
+
+        if (budget <= 0) {
+            deferredUpdates++;
+            return budget;
+        }
+
+        sender.sendName(viewer, mob, name);
+        sent.put(mob.getUniqueId(), name);
+        sentUpdates++;
+        return budget - 1;
+    }
+
+    /**
+     * @return How many names were sent to players
+     */
+    public long getSentUpdates() {
+        return sentUpdates;
+    }
+
+    /**
+     * @return How many times a name had to wait for a later refresh because a player hit their limit
+     */
+    public long getDeferredUpdates() {
+        return deferredUpdates;
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        sentNames.remove(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler
+    public void onPlayerRespawn(PlayerRespawnEvent event) {
+        // Respawning sends the player every entity again with the names the server has
+        sentNames.remove(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        // The client forgets every entity when it changes worlds
+        sentNames.remove(event.getPlayer().getUniqueId());
+    }
+
+}
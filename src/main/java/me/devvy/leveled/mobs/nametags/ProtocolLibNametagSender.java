@@ -0,0 +1,58 @@
+package me.devvy.leveled.mobs.nametags;
+
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.ProtocolLibrary;
+import com.comphenix.protocol.ProtocolManager;
+import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.wrappers.WrappedChatComponent;
+import com.comphenix.protocol.wrappers.WrappedDataWatcher;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Optional;
+
+/**
+ * Sends nametags as entity metadata packets through ProtocolLib. Only load this class if ProtocolLib is installed
+ */
+public class ProtocolLibNametagSender implements NametagPacketSender {
+
+    // Where the custom name and whether it's shown live in every entity's metadata (1.16)
+    private static final int CUSTOM_NAME_INDEX = 2;
+    private static final int CUSTOM_NAME_VISIBLE_INDEX = 3;
+
+    private final ProtocolManager protocolManager;
+
+    public ProtocolLibNametagSender() {
+        this.protocolManager = ProtocolLibrary.getProtocolManager();
+    }
+
+    private void sendMetadata(Player viewer, LivingEntity entity, String name, boolean visible) {
+
+        PacketContainer packet = protocolManager.createPacket(PacketType.Play.Server.ENTITY_METADATA);
+        packet.getIntegers().write(0, entity.getEntityId());
+
+        WrappedDataWatcher watcher = new WrappedDataWatcher();
+        Optional<Object> component = name != null ? Optional.of(WrappedChatComponent.fromText(name).getHandle()) : Optional.empty();
+        watcher.setObject(new WrappedDataWatcher.WrappedDataWatcherObject(CUSTOM_NAME_INDEX, WrappedDataWatcher.Registry.getChatComponentSerializer(true)), component);
+        watcher.setObject(new WrappedDataWatcher.WrappedDataWatcherObject(CUSTOM_NAME_VISIBLE_INDEX, WrappedDataWatcher.Registry.get(Boolean.class)), visible);
+        packet.getWatchableCollectionModifier().write(0, watcher.getWatchableObjects());
+
+        try {
+            protocolManager.sendServerPacket(viewer, packet);
+        } catch (InvocationTargetException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void sendName(Player viewer, LivingEntity entity, String name) {
+        sendMetadata(viewer, entity, name, true);
+    }
+
+    @Override
+    public void clearName(Player viewer, LivingEntity entity) {
+        sendMetadata(viewer, entity, entity.getCustomName(), entity.isCustomNameVisible());
+    }
+
+}
@@ -23,9 +23,11 @@ public class Party {
 
     public Collection<Player> getMembers() {
         ArrayList<Player> buffer = new ArrayList<>();
-        for (UUID id : members)
-            if (Leveled.getPlugin(Leveled.class).getServer().getPlayer(id) != null)
-                buffer.add(Leveled.getPlugin(Leveled.class).getServer().getPlayer(id));
+        for (UUID id : members) {
+            Player player = Leveled.getPlugin(Leveled.class).getServer().getPlayer(id);
+            if (player != null)
+                buffer.add(player);
+        }
 
         return buffer;
     }
@@ -34,6 +36,13 @@ public class Party {
         return Leveled.getPlugin(Leveled.class).getServer().getPlayer(owner);
     }
 
+    /**
+     * @return The UUID of the owner, doubles as an id for the party
+     */
+    public UUID getOwnerId() {
+        return owner;
+    }
+
     public void setOwner(Player owner) {
         this.owner = owner.getUniqueId();
     }
@@ -1,6 +1,7 @@
 package me.devvy.leveled.party;
 
 import me.devvy.leveled.Leveled;
+import me.devvy.leveled.player.ActionBarSegment;
 import me.devvy.leveled.player.PlayerDownedTask;
 import org.bukkit.*;
 import org.bukkit.attribute.Attribute;
@@ -31,7 +32,7 @@ public class PartyManager implements Listener {
 
         for (Player p : Bukkit.getOnlinePlayers()) {
 
-            numDowns.put(p.getUniqueId(), 0);
+            numDowns.put(p.getUniqueId(), getSavedNumDowns(p));
 
             if (p.getGameMode() == GameMode.SURVIVAL || p.getGameMode() == GameMode.ADVENTURE)
                 p.setInvulnerable(false);
@@ -55,6 +56,17 @@ public class PartyManager implements Listener {
 
     }
 
+    /**
+     * Downs carry over between logins, otherwise logging out would be a free way to reset your second wind
+     */
+    private int getSavedNumDowns(Player player){
+        return Leveled.getPlugin(Leveled.class).getProfileLoader().getProfile(player).getNumDowns();
+    }
+
+    public int getNumDowns(Player player){
+        return numDowns.getOrDefault(player.getUniqueId(), 0);
+    }
+
     private int getSecondWindSeconds(Player player){
 
         int downs = numDowns.get(player.getUniqueId());
@@ -125,7 +137,7 @@ public class PartyManager implements Listener {
         player.addPotionEffect(new PotionEffect(PotionEffectType.SLOW_DIGGING, 20 * 30, 3, false, false, true));
         player.setHealth(player.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue() * .1);
         player.sendTitle(ChatColor.AQUA + "REVIVED!", "", 2, 20, 10);
-        Leveled.getPlugin(Leveled.class).getActionBarManager().dispalyActionBarTextWithExtra(player, ChatColor.AQUA + "REVIVED");
+        Leveled.getPlugin(Leveled.class).getActionBarManager().showSegment(player, ActionBarSegment.STATUS, ChatColor.AQUA + "REVIVED");
         player.getWorld().playSound(player.getLocation(), Sound.ITEM_TOTEM_USE, .9f, 1);
     }
 
@@ -198,7 +210,7 @@ public class PartyManager implements Listener {
 
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event){
-        numDowns.put(event.getPlayer().getUniqueId(), 0);
+        numDowns.put(event.getPlayer().getUniqueId(), getSavedNumDowns(event.getPlayer()));
     }
 
     @EventHandler
@@ -0,0 +1,107 @@
+package me.devvy.leveled.player;
+
+import me.devvy.leveled.util.FormattingHelpers;
+import org.bukkit.ChatColor;
+
+/**
+ * Holds the extra segments that are up on one player's action bar right now, and remembers what was last sent so that
+ * the same text isn't sent twice in a row. HP and XP are handed in when the bar is drawn so they are never out of date
+ */
+public class ActionBarCompositor {
+
+    // How many extra segments fit on the bar next to HP and XP
+    private static final int MAX_SEGMENTS = 2;
+
+    // The client fades the action bar out after a few seconds, past this we send it again even if nothing changed
+    private static final int RESEND_AFTER_TICKS = 40;
+
+    private final String[] segmentText = new String[ActionBarSegment.values().length];
+    private final long[] segmentExpiry = new long[ActionBarSegment.values().length];
+    private int activeSegments;
+    private boolean dirty;
+
+    private String lastSent;
+    private long lastSentTick;
+
+    /**
+     * Asks for the bar to be drawn again on the next tick even though nothing in here changed, like when HP or XP changed
+     */
+    public void markDirty() {
+        this.dirty = true;
+    }
+
+    public void setSegment(ActionBarSegment segment, String text, long currentTick) {
+        if (segmentText[segment.ordinal()] == null)
+            activeSegments++;
+        segmentText[segment.ordinal()] = text;
+        segmentExpiry[segment.ordinal()] = currentTick + segment.DURATION;
+        dirty = true;
+    }
+
+    public void clearSegment(ActionBarSegment segment) {
+        if (segmentText[segment.ordinal()] == null)
+            return;
+        segmentText[segment.ordinal()] = null;
+        activeSegments--;
+        dirty = true;
+    }
+
+    /**
+     * @return true if this needs to be looked at again on a later tick, either to be drawn or for a segment to expire
+     */
+    public boolean isActive() {
+        return dirty || activeSegments > 0;
+    }
+
+    /**
+     * Drops any segments that have expired
+     *
+     * @param currentTick The tick we are on
+     * @return true if the bar needs to be drawn again
+     */
+    public boolean tick(long currentTick) {
+
+        for (ActionBarSegment segment : ActionBarSegment.values())
+            if (segmentText[segment.ordinal()] != null && segmentExpiry[segment.ordinal()] <= currentTick)
+                clearSegment(segment);
+
+        return dirty;
+    }
+
+    /**
+     * Puts the bar together
+     *
+     * @param currentTick The tick we are on
+     * @param currentHP The player's HP right now
+     * @param maxHP The player's max HP right now
+     * @param xpPortion The XP part of the bar
+     * @return The text to send, or null if it is the same as what the player is already looking at
+     */
+    public String compose(long currentTick, int currentHP, int maxHP, String xpPortion) {
+
+        dirty = false;
+
+        StringBuilder message = new StringBuilder();
+        message.append(ChatColor.RED).append(FormattingHelpers.getFormattedInteger(currentHP)).append("/").append(FormattingHelpers.getFormattedInteger(maxHP)).append(ChatColor.DARK_RED).append(" ❤   ").append(xpPortion);
+
+        int shown = 0;
+        for (ActionBarSegment segment : ActionBarSegment.values()) {
+            String text = segmentText[segment.ordinal()];
+            if (text == null)
+                continue;
+            if (shown++ > 0)
+                message.append("  ");
+            message.append(text);
+            if (shown >= MAX_SEGMENTS)
+                break;
+        }
+
+        String composed = message.toString();
+        if (composed.equals(lastSent) && currentTick - lastSentTick < RESEND_AFTER_TICKS)
+            return null;
+
+        lastSent = composed;
+        lastSentTick = currentTick;
+        return composed;
+    }
+}
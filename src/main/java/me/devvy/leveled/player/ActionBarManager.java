@@ -10,78 +10,144 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.entity.EntityRegainHealthEvent;
-
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.UUID;
+
+/**
+ * In charge of the action bar. Things that want to show something only update the player's compositor, and once a
+ * tick we draw the bar for whoever changed. A player getting hit every tick while poisoned and downed still only gets
+ * one action bar a tick, and none at all if it would say the same thing it already does
+ */
 public class ActionBarManager implements Listener {
 
     private final Leveled plugin;
+    private final HashMap<UUID, ActionBarCompositor> compositors;
+    private final LinkedHashSet<UUID> activePlayers;  // Players that need drawing or have segments that will expire
+    private long currentTick;
+
+    private class RenderTask extends BukkitRunnable {
+
+        @Override
+        public void run() {
+            currentTick++;
+            render();
+        }
+    }
 
     public ActionBarManager(Leveled plugin) {
         this.plugin = plugin;
-        for (Player p : plugin.getServer().getOnlinePlayers()) {
-            displayActionBarText(p, (int) p.getHealth(), (int) p.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue(), "");
+        this.compositors = new HashMap<>();
+        this.activePlayers = new LinkedHashSet<>();
+        for (Player p : plugin.getServer().getOnlinePlayers())
+            getCompositor(p).markDirty();
+
+        new RenderTask().runTaskTimer(plugin, 1, 1);
+    }
+
+    private ActionBarCompositor getCompositor(Player player) {
+        ActionBarCompositor compositor = compositors.get(player.getUniqueId());
+        if (compositor == null) {
+            compositor = new ActionBarCompositor();
+            compositor.markDirty();
+            compositors.put(player.getUniqueId(), compositor);
         }
+        activePlayers.add(player.getUniqueId());
+        return compositor;
     }
 
     /**
-     * Displays default action bar text
+     * Shows some extra text on the action bar, when we earn exp etc. It replaces whatever was showing in that segment
+     * and disappears on its own after the segment's duration
      *
-     * @param player The player the send the action bar to
+     * @param player The player to show the text to
+     * @param segment Which segment of the bar the text goes in
+     * @param text The text to show
      */
-    private void displayActionBarText(Player player, int currentHP, int maxHP, String extra) {
-
-        LeveledPlayer leveledPlayer = plugin.getPlayerManager().getLeveledPlayer(player);
-        String accumulated = FormattingHelpers.getFormattedInteger(leveledPlayer.getExperience().getAccumulatedExperienceToNextLevel());
-        String totalNeeded = FormattingHelpers.getFormattedInteger(leveledPlayer.getExperience().getTotalExperienceRequiredForNextLevel());
+    public void showSegment(Player player, ActionBarSegment segment, String text) {
+        getCompositor(player).setSegment(segment, text, currentTick);
+    }
 
-        String xpPortion = ChatColor.GREEN + "" + accumulated + ChatColor.GRAY + "/" + ChatColor.DARK_GREEN + "" + totalNeeded + ChatColor.GRAY + " XP   ";
+    /**
+     * Takes a segment off the action bar before it would have expired
+     *
+     * @param player The player to clear the segment for
+     * @param segment The segment to clear
+     */
+    public void clearSegment(Player player, ActionBarSegment segment) {
+        ActionBarCompositor compositor = compositors.get(player.getUniqueId());
+        if (compositor != null) {
+            compositor.clearSegment(segment);
+            activePlayers.add(player.getUniqueId());
+        }
+    }
 
-        if (player.getLevel() == PlayerExperience.LEVEL_CAP)
-            xpPortion = ChatColor.GREEN + "" + ChatColor.BOLD + "MAXED" + ChatColor.GRAY + " XP   ";
+    /**
+     * Draws the bar for every player whose bar changed since last tick
+     */
+    private void render() {
 
-        String message = ChatColor.RED + "" + FormattingHelpers.getFormattedInteger(currentHP) + "/" + FormattingHelpers.getFormattedInteger(maxHP) + ChatColor.DARK_RED + " ❤   " + xpPortion + extra;
-        player.sendActionBar(message);
-    }
+        Iterator<UUID> iterator = activePlayers.iterator();
+        while (iterator.hasNext()) {
 
-    @EventHandler(priority = EventPriority.MONITOR)
-    public void onPlayerGotHit(EntityDamageEvent event) {
+            UUID id = iterator.next();
+            Player player = plugin.getServer().getPlayer(id);
+            ActionBarCompositor compositor = compositors.get(id);
+            if (player == null || compositor == null) {
+                iterator.remove();
+                continue;
+            }
 
-        if (event.getEntity() instanceof Player) {
-            Player player = (Player) event.getEntity();
-            int hpToDisplay = (int) (player.getHealth() - event.getFinalDamage());
-            int maxHP = (int) player.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue();
-            if (hpToDisplay < 0) {
-                hpToDisplay = 0;
-            } else if (hpToDisplay > maxHP) {
-                hpToDisplay = maxHP;
+            if (compositor.tick(currentTick)) {
+                // Always read HP when drawing, lots of things set it directly without an event (heals, revives etc)
+                int maxHP = (int) player.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue();
+                int currentHP = Math.min(Math.max((int) player.getHealth(), 0), maxHP);
+                String message = compositor.compose(currentTick, currentHP, maxHP, getExperiencePortion(player));
+                if (message != null)
+                    player.sendActionBar(message);
             }
-            displayActionBarText(player, hpToDisplay, maxHP, "");
-        }
 
+            if (!compositor.isActive())
+                iterator.remove();
+        }
     }
 
-    @EventHandler(priority = EventPriority.MONITOR)
-    public void onPlayerHealed(EntityRegainHealthEvent event) {
+    private String getExperiencePortion(Player player) {
 
-        if (event.getEntity() instanceof Player) {
-            Player player = (Player) event.getEntity();
-            int hpToDisplay = (int) (player.getHealth() + event.getAmount());
-            int maxHP = (int) player.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue();
-            if (hpToDisplay > maxHP) {
-                hpToDisplay = maxHP;
-            }
-            displayActionBarText(player, hpToDisplay, maxHP, "");
-        }
+        if (player.getLevel() == PlayerExperience.LEVEL_CAP)
+            return ChatColor.GREEN + "" + ChatColor.BOLD + "MAXED" + ChatColor.GRAY + " XP   ";
 
+        PlayerExperience experience = plugin.getPlayerManager().getLeveledPlayer(player).getExperience();
+        String accumulated = FormattingHelpers.getFormattedInteger(experience.getAccumulatedExperienceToNextLevel());
+        String totalNeeded = FormattingHelpers.getFormattedInteger(experience.getTotalExperienceRequiredForNextLevel());
+        return ChatColor.GREEN + "" + accumulated + ChatColor.GRAY + "/" + ChatColor.DARK_GREEN + "" + totalNeeded + ChatColor.GRAY + " XP   ";
     }
 
     /**
-     * Called from other places in the plugin we should add some extra text on the bar, when we earn exp etc
+     * The damage hasn't been applied yet, we just draw the bar next tick once it has
      *
-     * @param player  The player to send the message to
-     * @param message The extra text to tack onto the action bar text
+     * @param event The EntityDamageEvent we are listening to
      */
-    public void dispalyActionBarTextWithExtra(Player player, String message) {
-        displayActionBarText(player, (int) player.getHealth(), (int) player.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue(), message);
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerGotHit(EntityDamageEvent event) {
+        if (event.getEntity() instanceof Player)
+            getCompositor((Player) event.getEntity()).markDirty();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerHealed(EntityRegainHealthEvent event) {
+        if (event.getEntity() instanceof Player)
+            getCompositor((Player) event.getEntity()).markDirty();
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        compositors.remove(event.getPlayer().getUniqueId());
+        activePlayers.remove(event.getPlayer().getUniqueId());
     }
 
 }
@@ -0,0 +1,19 @@
+package me.devvy.leveled.player;
+
+/**
+ * The kinds of extra text that can be tacked onto the end of a player's action bar. Each kind has one slot, so showing
+ * a new message of the same kind replaces the old one. They are declared from most to least important, when there
+ * are more than we have room for the least important ones are left off
+ */
+public enum ActionBarSegment {
+
+    DOWNED(5),       // Refreshed every tick while downed, so it can disappear almost as soon as they are up
+    STATUS(40),      // Poisoned, cured, revived etc
+    EXPERIENCE(40);  // +XP messages
+
+    public final int DURATION;  // How many ticks the text stays up for after it was last shown
+
+    ActionBarSegment(int duration) {
+        this.DURATION = duration;
+    }
+}
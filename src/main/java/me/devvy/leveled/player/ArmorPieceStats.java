@@ -0,0 +1,134 @@
+package me.devvy.leveled.player;
+
+import me.devvy.leveled.enchantments.EnchantmentManager;
+import me.devvy.leveled.items.CustomItemManager;
+import me.devvy.leveled.items.CustomItemType;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+/**
+ * Everything LeveledPlayer cares about from a single piece of armor, pulled out of the item in one pass. Reading
+ * enchants or the persistent data container off of an ItemStack copies its meta every time, so a player keeps one of
+ * these per armor slot and only parses the item again when the item in that slot actually changes
+ */
+public final class ArmorPieceStats {
+
+    public static final ArmorPieceStats EMPTY = new ArmorPieceStats(null, null, 0, 0, 0, 0, 0, 0, 0);
+
+    private final ItemStack item;  // A copy of the item these stats came from, used to tell if the slot changed
+    private final CustomItemType customItemType;
+    private final int baseDefense;
+    private final int protection;
+    private final int fireProtection;
+    private final int blastProtection;
+    private final int projectileProtection;
+    private final int growth;
+    private final int speedster;
+
+    private ArmorPieceStats(ItemStack item, CustomItemType customItemType, int baseDefense, int protection, int fireProtection, int blastProtection, int projectileProtection, int growth, int speedster) {
+        this.item = item;
+        this.customItemType = customItemType;
+        this.baseDefense = baseDefense;
+        this.protection = protection;
+        this.fireProtection = fireProtection;
+        this.blastProtection = blastProtection;
+        this.projectileProtection = projectileProtection;
+        this.growth = growth;
+        this.speedster = speedster;
+    }
+
+    /**
+     * Gets the stats for an armor piece, reusing the previous stats for the slot if the item hasn't changed
+     *
+     * @param customItemManager Used to look up custom armor
+     * @param previous The stats that were in this slot last time, EMPTY if there were none
+     * @param armor The item that is in the slot now, can be null
+     * @return The stats of the armor piece
+     */
+    public static ArmorPieceStats of(CustomItemManager customItemManager, ArmorPieceStats previous, ItemStack armor) {
+
+        if (armor == null)
+            return EMPTY;
+
+        // isSimilar compares the items' data directly instead of copying meta, and ignores the stack size
+        if (previous.item != null && previous.item.getType() == armor.getType() && previous.item.isSimilar(armor))
+            return previous;
+
+        ItemMeta meta = armor.getItemMeta();
+        if (meta == null)
+            return new ArmorPieceStats(armor.clone(), null, getBaseArmorDefense(null, armor), 0, 0, 0, 0, 0, 0);
+
+        CustomItemType type = customItemManager.getCustomItemType(meta);
+        return new ArmorPieceStats(
+                armor.clone(),
+                type,
+                getBaseArmorDefense(type, armor),
+                meta.getEnchantLevel(Enchantment.PROTECTION_ENVIRONMENTAL),
+                meta.getEnchantLevel(Enchantment.PROTECTION_FIRE),
+                meta.getEnchantLevel(Enchantment.PROTECTION_EXPLOSIONS),
+                meta.getEnchantLevel(Enchantment.PROTECTION_PROJECTILE),
+                meta.getEnchantLevel(EnchantmentManager.GROWTH),
+                meta.getEnchantLevel(EnchantmentManager.SPEEDSTER)
+        );
+    }
+
+    /**
+     * All armor in the game has a flat resist value, that is defined here
+     *
+     * @param type The custom type of the armor, null if it isn't custom
+     * @param armor The ItemStack that the player is wearing
+     * @return a dmg amount of resist
+     */
+    private static int getBaseArmorDefense(CustomItemType type, ItemStack armor) {
+
+        // Try to get a custom defense value
+        if (type != null && type.CATEGORY == CustomItemType.Category.ARMOR)
+            return type.STAT_AMOUNT;
+
+        CustomItemType.Category fallbackCategory = CustomItemType.Category.getFallbackCategory(armor.getType());
+        if (fallbackCategory == CustomItemType.Category.ARMOR)
+            return CustomItemType.getFallbackStat(armor.getType());
+
+        return 0;
+    }
+
+    /**
+     * @return true if there is an item in this slot
+     */
+    public boolean isPresent() {
+        return item != null;
+    }
+
+    public CustomItemType getCustomItemType() {
+        return customItemType;
+    }
+
+    public int getBaseDefense() {
+        return baseDefense;
+    }
+
+    public int getProtection() {
+        return protection;
+    }
+
+    public int getFireProtection() {
+        return fireProtection;
+    }
+
+    public int getBlastProtection() {
+        return blastProtection;
+    }
+
+    public int getProjectileProtection() {
+        return projectileProtection;
+    }
+
+    public int getGrowth() {
+        return growth;
+    }
+
+    public int getSpeedster() {
+        return speedster;
+    }
+}
@@ -0,0 +1,105 @@
+package me.devvy.leveled.player;
+
+import me.devvy.leveled.Leveled;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.LinkedHashSet;
+import java.util.UUID;
+
+/**
+ * Recalculating a player's attributes rescans all their armor and resets their health and speed, and lots of things
+ * can ask for it in the same tick (swapping a whole armor set fires 4 armor change events). Instead of recalculating
+ * every time, players are marked as stale and every stale player is recalculated exactly once on the next tick
+ */
+public class AttributeUpdateScheduler {
+
+    private final Leveled plugin;
+    private final LeveledPlayerManager playerManager;
+    private final LinkedHashSet<UUID> stalePlayers;
+    private boolean flushScheduled;
+
+    private long requestedUpdates;
+    private long performedUpdates;
+    private long coalescedUpdates;
+
+    private class FlushTask extends BukkitRunnable {
+
+        @Override
+        public void run() {
+            flushScheduled = false;
+            flush();
+        }
+    }
+
+    public AttributeUpdateScheduler(Leveled plugin, LeveledPlayerManager playerManager) {
+        this.plugin = plugin;
+        this.playerManager = playerManager;
+        this.stalePlayers = new LinkedHashSet<>();
+        this.flushScheduled = false;
+    }
+
+    /**
+     * Marks a player's attributes as out of date, they will be recalculated on the next tick
+     *
+     * @param player The player whose attributes need to be recalculated
+     */
+    public void markStale(Player player) {
+
+        requestedUpdates++;
+
+        // If they were already stale, this request gets merged with the one already pending
+        if (!stalePlayers.add(player.getUniqueId()))
+            coalescedUpdates++;
+
+        if (!flushScheduled) {
+            flushScheduled = true;
+            new FlushTask().runTaskLater(plugin, 1);
+        }
+    }
+
+    /**
+     * Recalculates the attributes of every stale player right now
+     */
+    public void flush() {
+
+        if (stalePlayers.isEmpty())
+            return;
+
+        UUID[] toUpdate = stalePlayers.toArray(new UUID[0]);
+        stalePlayers.clear();
+
+        for (UUID id : toUpdate) {
+
+            // They may have logged off since they were marked
+            Player player = plugin.getServer().getPlayer(id);
+            if (player == null)
+                continue;
+
+            playerManager.recalculateAttributes(player);
+            performedUpdates++;
+        }
+    }
+
+    /**
+     * @return How many times an update was asked for
+     */
+    public long getRequestedUpdates() {
+        return requestedUpdates;
+    }
+
+    /**
+     * @return How many times attributes were actually recalculated
+     */
+    public long getPerformedUpdates() {
+        return performedUpdates;
+    }
+
+    /**
+     * @return How many update requests were merged into another update that was already pending
+     */
+    public long getCoalescedUpdates() {
+        return coalescedUpdates;
+    }
+
+}
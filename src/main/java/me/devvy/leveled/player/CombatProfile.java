@@ -0,0 +1,58 @@
+package me.devvy.leveled.player;
+
+/**
+ * An immutable snapshot of every number a player brings into a fight. Everything in here is derived from the player's
+ * level, armor and potion effects, so rather than asking Bukkit for potion effects on every hit we build one of these
+ * whenever one of those inputs change and just read fields in the damage listeners
+ */
+public final class CombatProfile {
+
+    private final double strengthBonus;
+    private final double envResist;
+    private final double fireResist;
+    private final double explosionResist;
+    private final double projResist;
+    private final double maxHealth;
+
+    public CombatProfile(double strengthBonus, double envResist, double fireResist, double explosionResist, double projResist, double maxHealth) {
+        this.strengthBonus = strengthBonus;
+        this.envResist = envResist;
+        this.fireResist = fireResist;
+        this.explosionResist = explosionResist;
+        this.projResist = projResist;
+        this.maxHealth = maxHealth;
+    }
+
+    /**
+     * @return The multiplier to apply to outgoing melee and ranged damage, includes strength potions
+     */
+    public double getStrengthBonus() {
+        return strengthBonus;
+    }
+
+    /**
+     * @return The multiplier to apply to damage taken from mobs, includes resistance potions
+     */
+    public double getEnvResist() {
+        return envResist;
+    }
+
+    /**
+     * @return The multiplier to apply to fire damage, includes fire resistance potions
+     */
+    public double getFireResist() {
+        return fireResist;
+    }
+
+    public double getExplosionResist() {
+        return explosionResist;
+    }
+
+    public double getProjResist() {
+        return projResist;
+    }
+
+    public double getMaxHealth() {
+        return maxHealth;
+    }
+}
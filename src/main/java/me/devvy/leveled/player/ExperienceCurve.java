@@ -0,0 +1,90 @@
+package me.devvy.leveled.player;
+
+/**
+ * The experience curve, precomputed for every level up to the level cap. Our formula currently uses the original DND
+ * formula, may change later 500*(level^2) - 500 * level where level is the level being reached
+ */
+public abstract class ExperienceCurve {
+
+    // REQUIRED[level] is the experience needed to go from level to level + 1
+    private static final long[] REQUIRED = new long[PlayerExperience.LEVEL_CAP + 1];
+    // CUMULATIVE[level] is the total experience needed to go from level 1 to level
+    private static final long[] CUMULATIVE = new long[PlayerExperience.LEVEL_CAP + 1];
+
+    static {
+        for (int level = 0; level <= PlayerExperience.LEVEL_CAP; level++)
+            REQUIRED[level] = calculateExperienceRequiredForLevel(level);
+
+        for (int level = 2; level <= PlayerExperience.LEVEL_CAP; level++)
+            CUMULATIVE[level] = CUMULATIVE[level - 1] + REQUIRED[level - 1];
+    }
+
+    private static long calculateExperienceRequiredForLevel(int level) {
+        long nextLevel = level + 1;
+        return 500 * (nextLevel * nextLevel) - (500 * nextLevel);
+    }
+
+    /**
+     * Gets the experience required to go from some level to the next one
+     *
+     * @param level The level we are starting at
+     * @return The experience required to get to level + 1
+     */
+    public static long getExperienceRequiredForLevel(int level) {
+
+        // Mobs can go past the level cap, so fall back to the formula for them
+        if (level < 0 || level > PlayerExperience.LEVEL_CAP)
+            return calculateExperienceRequiredForLevel(level);
+
+        return REQUIRED[level];
+    }
+
+    /**
+     * Gets the total experience it takes to get from level 1 to some level
+     *
+     * @param level The level to get the total experience for, clamped between 1 and the level cap
+     * @return The total experience a player at the start of the level has earned
+     */
+    public static long getTotalExperienceForLevel(int level) {
+
+        if (level <= 1)
+            return 0;
+
+        return CUMULATIVE[Math.min(level, PlayerExperience.LEVEL_CAP)];
+    }
+
+    /**
+     * Gets the most total experience a player can have, the amount it takes to reach the level cap
+     *
+     * @return The total experience at the level cap
+     */
+    public static long getMaxTotalExperience() {
+        return CUMULATIVE[PlayerExperience.LEVEL_CAP];
+    }
+
+    /**
+     * Finds what level a player would be given the total amount of experience they have earned
+     *
+     * @param totalExperience The total amount of experience earned from level 1
+     * @return The level the player should be, never above the level cap
+     */
+    public static int getLevelFromTotalExperience(long totalExperience) {
+
+        if (totalExperience >= getMaxTotalExperience())
+            return PlayerExperience.LEVEL_CAP;
+
+        // Binary search for the highest level we have earned enough experience for
+        int low = 1;
+        int high = PlayerExperience.LEVEL_CAP;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (CUMULATIVE[mid] <= totalExperience)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+
+        return low;
+    }
+
+}
@@ -0,0 +1,143 @@
+package me.devvy.leveled.player;
+
+import me.devvy.leveled.Leveled;
+import me.devvy.leveled.util.FormattingHelpers;
+import org.bukkit.ChatColor;
+import org.bukkit.Sound;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.UUID;
+
+/**
+ * Collects all the experience a player earns during a tick and gives it to them all at once. Mining a vein with
+ * fortune or sweeping through a pack of mobs can earn experience a dozen times in one tick, this way the player only
+ * gets one sound and one "+XP" message on their action bar for all of it
+ */
+public class ExperienceGrantAccumulator {
+
+    private final Leveled plugin;
+    private final LeveledPlayerManager playerManager;
+    private final LinkedHashMap<UUID, PendingGrant> pendingGrants;
+    private boolean flushScheduled;
+
+    private static class PendingGrant {
+
+        private int amount = 0;
+        private final int[] amountBySource = new int[ExperienceSource.values().length];
+        private boolean bonus = false;
+        private ExperienceSource source = null;
+        private boolean multipleSources = false;
+        private boolean hasAdvancement = false;
+
+        private void add(ExperienceSource source, int amount, boolean bonus) {
+            this.amount += amount;
+            this.amountBySource[source.ordinal()] += amount;
+            this.bonus |= bonus;
+            this.hasAdvancement |= source == ExperienceSource.ADVANCEMENT;
+            if (this.source != null && this.source != source)
+                multipleSources = true;
+            this.source = source;
+        }
+    }
+
+    private class FlushTask extends BukkitRunnable {
+
+        @Override
+        public void run() {
+            flushScheduled = false;
+            flush();
+        }
+    }
+
+    public ExperienceGrantAccumulator(Leveled plugin, LeveledPlayerManager playerManager) {
+        this.plugin = plugin;
+        this.playerManager = playerManager;
+        this.pendingGrants = new LinkedHashMap<>();
+        this.flushScheduled = false;
+    }
+
+    /**
+     * Queues experience to be given to a player on the next tick
+     *
+     * @param player The player earning experience
+     * @param source Where the experience came from
+     * @param amount How much experience was earned
+     * @param bonus True if this was a bonus (double xp, enchants etc), shown on the action bar
+     */
+    public void grant(Player player, ExperienceSource source, int amount, boolean bonus) {
+
+        if (amount <= 0)
+            return;
+
+        PendingGrant pending = pendingGrants.get(player.getUniqueId());
+        if (pending == null) {
+            pending = new PendingGrant();
+            pendingGrants.put(player.getUniqueId(), pending);
+        }
+        pending.add(source, amount, bonus);
+
+        if (!flushScheduled) {
+            flushScheduled = true;
+            new FlushTask().runTask(plugin);
+        }
+    }
+
+    /**
+     * Records where the experience a player was given came from. If they didn't get all of it (they hit the cap) each
+     * source is cut down by the same share
+     */
+    private void record(LeveledPlayer leveledPlayer, PendingGrant grant, int given) {
+
+        if (given <= 0)
+            return;
+
+        for (ExperienceSource source : ExperienceSource.values()) {
+            int earned = grant.amountBySource[source.ordinal()];
+            if (earned > 0)
+                leveledPlayer.recordExperience(source, given == grant.amount ? earned : (int) ((long) earned * given / grant.amount));
+        }
+    }
+
+    /**
+     * Gives every player their queued experience right now
+     */
+    public void flush() {
+
+        if (pendingGrants.isEmpty())
+            return;
+
+        ArrayList<UUID> players = new ArrayList<>(pendingGrants.keySet());
+        ArrayList<PendingGrant> grants = new ArrayList<>(pendingGrants.values());
+        pendingGrants.clear();
+
+        for (int i = 0; i < players.size(); i++) {
+
+            // They may have logged off since earning it
+            Player player = plugin.getServer().getPlayer(players.get(i));
+            if (player == null)
+                continue;
+
+            PendingGrant grant = grants.get(i);
+            LeveledPlayer leveledPlayer = playerManager.getLeveledPlayer(player);
+            int given = leveledPlayer.giveExperience(grant.amount);
+            record(leveledPlayer, grant, given);
+
+            if (grant.hasAdvancement)
+                player.playSound(player.getLocation(), Sound.UI_TOAST_CHALLENGE_COMPLETE, .5f, 1);
+            else
+                player.playSound(player.getLocation(), Sound.ENTITY_EXPERIENCE_ORB_PICKUP, .5f, 1);
+
+            String message = (grant.multipleSources ? ChatColor.YELLOW : grant.source.COLOR) + "+" + FormattingHelpers.getFormattedInteger(grant.amount) + " XP";
+            if (grant.hasAdvancement)
+                message = ChatColor.GREEN + "Challenge Completed! " + message;
+            if (grant.bonus)
+                message = ChatColor.LIGHT_PURPLE + "" + ChatColor.BOLD + "BONUS! " + message;
+
+            plugin.getActionBarManager().showSegment(player, ActionBarSegment.EXPERIENCE, message);
+        }
+    }
+
+}
@@ -0,0 +1,25 @@
+package me.devvy.leveled.player;
+
+import org.bukkit.ChatColor;
+
+/**
+ * Every way a player can earn experience, used to break down where a player's experience came from
+ */
+public enum ExperienceSource {
+
+    MOB_KILL(   "Combat",       ChatColor.YELLOW),
+    MINING(     "Mining",       ChatColor.BLUE),
+    SMELTING(   "Smelting",     ChatColor.GOLD),
+    TRADING(    "Trading",      ChatColor.DARK_GREEN),
+    ADVANCEMENT("Challenges",   ChatColor.LIGHT_PURPLE),
+    BOSS(       "Bosses",       ChatColor.RED),
+    ;
+
+    public final String NAME;
+    public final ChatColor COLOR;
+
+    ExperienceSource(String name, ChatColor color) {
+        this.NAME = name;
+        this.COLOR = color;
+    }
+}
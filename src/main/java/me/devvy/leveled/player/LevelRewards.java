@@ -36,7 +36,8 @@ public abstract class LevelRewards {
     public static final int UNBREAKABLE_TOOLS_UNLOCK = PlayerExperience.LEVEL_CAP;  // TODO: Implement
 
     /**
-     * Call this method every time a player levels up, this will tell them their unlocks
+     * Call this method every time a player levels up, this will tell them their unlocks. If they went up more than one
+     * level at once, all of the unlocks are sent together in one message
      *
      * @param player   - The Player that leveled up
      * @param oldLevel - Their old level
@@ -44,13 +45,22 @@ public abstract class LevelRewards {
      */
     public static void playerLeveledUp(Player player, int oldLevel, int newLevel) {
 
-        // Loop through all the levels and send a message if needed
+        StringBuilder summary = new StringBuilder();
+        int numUnlocks = 0;
+
+        // Loop through all the levels and collect any unlocks
         for (int i = oldLevel + 1; i <= newLevel; i++) {
             String message = getPlayerRewardInfo(i);
             if (!message.equals("")) {
-                player.sendMessage(ChatColor.LIGHT_PURPLE + "Level " + i + " unlocks: " + ChatColor.AQUA + message);
+                if (numUnlocks > 0)
+                    summary.append('\n');
+                summary.append(ChatColor.LIGHT_PURPLE).append("Level ").append(i).append(" unlocks: ").append(ChatColor.AQUA).append(message);
+                numUnlocks++;
             }
         }
+
+        if (numUnlocks > 0)
+            player.sendMessage(summary.toString());
     }
 
     /**
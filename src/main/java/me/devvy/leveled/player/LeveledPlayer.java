@@ -1,19 +1,21 @@
 package me.devvy.leveled.player;
 
 import me.devvy.leveled.items.CustomItemManager;
-import me.devvy.leveled.enchantments.EnchantmentManager;
-import me.devvy.leveled.items.CustomItemType;
 import me.devvy.leveled.player.abilities.CustomAbility;
+import me.devvy.leveled.player.abilities.SetBonus;
+import me.devvy.leveled.profile.PlayerProfile;
 import org.bukkit.ChatColor;
 import org.bukkit.attribute.Attribute;
 import org.bukkit.attribute.AttributeInstance;
-import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
 
 public class LeveledPlayer {
 
@@ -29,12 +31,18 @@ public class LeveledPlayer {
     private int projectileDefense;
     private double bonusHealth;
     private double speed;
-    private ArrayList<CustomAbility> abilities;
+    private EnumSet<CustomAbility> abilities;
+    private long equippedCustomItems = -1;  // Mask of the custom item types being worn, see SetBonus
+    private CombatProfile combatProfile;
+    private volatile PlayerSnapshot snapshot;
+    private final long[] experienceBySource = new long[ExperienceSource.values().length];
 
-    private ItemStack helmet;
-    private ItemStack chestplate;
-    private ItemStack leggings;
-    private ItemStack boots;
+    private static final int HELMET_SLOT = 0;
+    private static final int CHESTPLATE_SLOT = 1;
+    private static final int LEGGINGS_SLOT = 2;
+    private static final int BOOTS_SLOT = 3;
+
+    private final ArmorPieceStats[] armor = {ArmorPieceStats.EMPTY, ArmorPieceStats.EMPTY, ArmorPieceStats.EMPTY, ArmorPieceStats.EMPTY};
 
     public LeveledPlayer(CustomItemManager customItemManager, Player player) {
         this.customItemManager = customItemManager;
@@ -53,8 +61,46 @@ public class LeveledPlayer {
         return experience;
     }
 
-    public void giveExperience(int amount){
-        experience.giveExperience(amount);
+    /**
+     * @return How much of the experience the player actually got, see PlayerExperience.giveExperience
+     */
+    public int giveExperience(int amount){
+        return experience.giveExperience(amount);
+    }
+
+    /**
+     * Picks up where this player left off last time they were saved
+     *
+     * @param profile The last profile saved for this player
+     */
+    public void loadProfile(PlayerProfile profile){
+        for (ExperienceSource source : ExperienceSource.values())
+            experienceBySource[source.ordinal()] = profile.getExperienceEarned(source);
+    }
+
+    /**
+     * Takes a snapshot of this player that can be handed off to the profile store
+     *
+     * @param numDowns How many times the player has been downed since they last died
+     * @return An immutable copy of everything we save about this player
+     */
+    public PlayerProfile createProfile(int numDowns){
+        return new PlayerProfile(spigotPlayer.getUniqueId(), experience.getTotalExperience(), numDowns, System.currentTimeMillis(), experienceBySource);
+    }
+
+    /**
+     * Keeps track of where this player's experience has come from, shown in /stats. Only record what they were
+     * actually given so the breakdown never adds up to more than their total
+     *
+     * @param source Where the experience came from
+     * @param amount How much experience was earned
+     */
+    public void recordExperience(ExperienceSource source, int amount){
+        experienceBySource[source.ordinal()] += amount;
+    }
+
+    public long getExperienceEarned(ExperienceSource source){
+        return experienceBySource[source.ordinal()];
     }
 
     public int getStrength() {
@@ -62,12 +108,7 @@ public class LeveledPlayer {
     }
 
     public double getStrengthBonus(){
-        double percent = strength / 100.;
-        for (PotionEffect potionEffect : spigotPlayer.getActivePotionEffects()){
-            if (potionEffect.getType().equals(PotionEffectType.INCREASE_DAMAGE))
-                percent += (1.3 * potionEffect.getAmplifier());
-        }
-        return 1 + percent;
+        return combatProfile.getStrengthBonus();
     }
 
     public int getDefense() {
@@ -75,11 +116,7 @@ public class LeveledPlayer {
     }
 
     public double getEnvResist(){
-        PotionEffect resistPot = spigotPlayer.getPotionEffect(PotionEffectType.DAMAGE_RESISTANCE);
-        int bonusResist = 0;
-        if (resistPot != null)
-            bonusResist += (resistPot.getAmplifier() * 150);
-        return 300 / (defense + bonusResist + 300.);
+        return combatProfile.getEnvResist();
     }
 
     public int getFireDefense() {
@@ -87,11 +124,7 @@ public class LeveledPlayer {
     }
 
     public double getFireResist(){
-        PotionEffect resistPot = spigotPlayer.getPotionEffect(PotionEffectType.FIRE_RESISTANCE);
-        int bonusResist = 0;
-        if (resistPot != null)
-            bonusResist += (resistPot.getAmplifier() * 150);
-        return 100. / (fireDefense + bonusResist + 100.);
+        return combatProfile.getFireResist();
     }
 
     public int getExplosionDefense() {
@@ -99,7 +132,7 @@ public class LeveledPlayer {
     }
 
     public double getExplosionResist(){
-        return 100. / (explosionDefense + 100.);
+        return combatProfile.getExplosionResist();
     }
 
     public int getProjectileDefense() {
@@ -107,7 +140,7 @@ public class LeveledPlayer {
     }
 
     public double getProjResist(){
-        return 100. / (projectileDefense + 100.);
+        return combatProfile.getProjResist();
     }
 
     public double getBonusHealth() {
@@ -118,15 +151,99 @@ public class LeveledPlayer {
         return speed;
     }
 
-    public ArrayList<CustomAbility> getAbilities() {
-        return abilities;
+    public Set<CustomAbility> getAbilities() {
+        return Collections.unmodifiableSet(abilities);
+    }
+
+    public boolean hasAbility(CustomAbility ability) {
+        return abilities.contains(ability);
+    }
+
+    public CombatProfile getCombatProfile() {
+        return combatProfile;
+    }
+
+    /**
+     * Gets the last snapshot published for this player, this is the only thing in here that is safe to use off of
+     * the main thread
+     *
+     * @return An immutable copy of the player's level, experience, health and party state
+     */
+    public PlayerSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Publishes a new snapshot if anything changed, keeping the party and downed state from the last one
+     */
+    public void publishSnapshot() {
+        PlayerSnapshot last = snapshot;
+        publishSnapshot(last != null ? last.getPartyId() : null, last != null && last.isDowned());
+    }
+
+    /**
+     * Publishes a new snapshot if anything changed. Only call this from the main thread
+     *
+     * @param partyId The UUID of the owner of the player's party, null if they aren't in one
+     * @param downed True if the player is downed
+     */
+    public void publishSnapshot(UUID partyId, boolean downed) {
+
+        int level = experience.getLevel();
+        long totalExperience = experience.getTotalExperience();
+        double health = spigotPlayer.getHealth();
+        double maxHealth = combatProfile.getMaxHealth();
+
+        PlayerSnapshot last = snapshot;
+        if (last != null && last.matches(level, totalExperience, health, maxHealth, partyId, downed))
+            return;
+
+        snapshot = new PlayerSnapshot(spigotPlayer.getUniqueId(), level, totalExperience, health, maxHealth, partyId, downed);
+    }
+
+    /**
+     * Rebuilds the combat profile from the player's current attributes and potion effects
+     */
+    public void rebuildCombatProfile() {
+        rebuildCombatProfile(null, null);
+    }
+
+    /**
+     * Rebuilds the combat profile, potion effect events fire before the effect is actually applied so the caller can
+     * tell us what a potion effect type is about to become
+     *
+     * @param changedType The potion effect type that is about to change, null if nothing is changing
+     * @param newEffect The effect that type is about to become, null if it is being removed
+     */
+    public void rebuildCombatProfile(PotionEffectType changedType, PotionEffect newEffect) {
+
+        int strengthAmplifier = getPotionAmplifier(PotionEffectType.INCREASE_DAMAGE, changedType, newEffect);
+        int resistAmplifier = getPotionAmplifier(PotionEffectType.DAMAGE_RESISTANCE, changedType, newEffect);
+        int fireResistAmplifier = getPotionAmplifier(PotionEffectType.FIRE_RESISTANCE, changedType, newEffect);
+
+        double strengthBonus = 1 + strength / 100. + (1.3 * strengthAmplifier);
+        double envResist = 300 / (defense + resistAmplifier * 150 + 300.);
+        double fireResist = 100. / (fireDefense + fireResistAmplifier * 150 + 100.);
+        double explosionResist = 100. / (explosionDefense + 100.);
+        double projResist = 100. / (projectileDefense + 100.);
+
+        this.combatProfile = new CombatProfile(strengthBonus, envResist, fireResist, explosionResist, projResist, calculateBaseHealth() + bonusHealth);
+    }
+
+    /**
+     * Gets the amplifier of a potion effect, or 0 if the player doesn't have it
+     */
+    private int getPotionAmplifier(PotionEffectType type, PotionEffectType changedType, PotionEffect newEffect) {
+
+        if (type.equals(changedType))
+            return newEffect != null ? newEffect.getAmplifier() : 0;
+
+        PotionEffect effect = spigotPlayer.getPotionEffect(type);
+        return effect != null ? effect.getAmplifier() : 0;
     }
 
     public void updateAttributes() {
-        this.helmet = spigotPlayer.getInventory().getHelmet();
-        this.chestplate = spigotPlayer.getInventory().getChestplate();
-        this.leggings = spigotPlayer.getInventory().getLeggings();
-        this.boots = spigotPlayer.getInventory().getBoots();
+        updateArmorStats();
 
         this.strength = 10 + spigotPlayer.getLevel() * 2;
 
@@ -138,61 +255,58 @@ public class LeveledPlayer {
         this.bonusHealth = calculateBonusHealth();
         calculateTotalHealth();
         this.speed = calculateSpeed();
-        this.abilities = calculateAbilities();
+        calculateAbilities();
         spigotPlayer.getAttribute(Attribute.GENERIC_ATTACK_SPEED).setBaseValue(128);
+        rebuildCombatProfile();
+        publishSnapshot();
+    }
+
+    /**
+     * Reads every armor slot once, only items that changed since the last update are actually parsed
+     */
+    private void updateArmorStats() {
+        PlayerInventory inventory = spigotPlayer.getInventory();
+        armor[HELMET_SLOT] = ArmorPieceStats.of(customItemManager, armor[HELMET_SLOT], inventory.getHelmet());
+        armor[CHESTPLATE_SLOT] = ArmorPieceStats.of(customItemManager, armor[CHESTPLATE_SLOT], inventory.getChestplate());
+        armor[LEGGINGS_SLOT] = ArmorPieceStats.of(customItemManager, armor[LEGGINGS_SLOT], inventory.getLeggings());
+        armor[BOOTS_SLOT] = ArmorPieceStats.of(customItemManager, armor[BOOTS_SLOT], inventory.getBoots());
     }
 
     private void calculateDefense() {
         this.defense = 10 + spigotPlayer.getLevel() * 3;
-        int protectionLevel;
-
-        ItemStack[] armorPieces = new ItemStack[]{this.helmet, this.chestplate, this.leggings, this.boots};
 
-        for (ItemStack armor : armorPieces){
-            if (armor == null)
+        for (ArmorPieceStats piece : armor){
+            if (!piece.isPresent())
                 continue;
 
-            int armorDef = getBaseArmorDefense(armor);
-            protectionLevel = armor.getEnchantmentLevel(Enchantment.PROTECTION_ENVIRONMENTAL);
-            armorDef += 1 + (protectionLevel / 10.);
+            int armorDef = piece.getBaseDefense();
+            armorDef += 1 + (piece.getProtection() / 10.);
             this.defense += armorDef;
         }
     }
 
     private void calculateFireDefense() {
-        this.fireDefense = 0;
         int protectionLevel = 0;
+        for (ArmorPieceStats piece : armor)
+            protectionLevel += piece.getFireProtection();
 
-        ItemStack[] armorPieces = new ItemStack[]{this.helmet, this.chestplate, this.leggings, this.boots};
-        for (ItemStack armor : armorPieces)
-            if (armor != null)
-                protectionLevel += armor.getEnchantmentLevel(Enchantment.PROTECTION_FIRE);
-
-        this.fireDefense += (Math.pow(protectionLevel, 2));
+        this.fireDefense = (int) Math.pow(protectionLevel, 2);
     }
 
     private void calculateExplosionDefense() {
-        this.explosionDefense = 0;
         int protectionLevel = 0;
+        for (ArmorPieceStats piece : armor)
+            protectionLevel += piece.getBlastProtection();
 
-        ItemStack[] armorPieces = new ItemStack[]{this.helmet, this.chestplate, this.leggings, this.boots};
-        for (ItemStack armor : armorPieces)
-            if (armor != null)
-                protectionLevel += armor.getEnchantmentLevel(Enchantment.PROTECTION_EXPLOSIONS);
-
-        this.explosionDefense += (Math.pow(protectionLevel, 2));
+        this.explosionDefense = (int) Math.pow(protectionLevel, 2);
     }
 
     private void calculateProjectileDefense() {
-        this.projectileDefense = 0;
         int protectionLevel = 0;
+        for (ArmorPieceStats piece : armor)
+            protectionLevel += piece.getProjectileProtection();
 
-        ItemStack[] armorPieces = new ItemStack[]{this.helmet, this.chestplate, this.leggings, this.boots};
-        for (ItemStack armor : armorPieces)
-            if (armor != null)
-                protectionLevel += armor.getEnchantmentLevel(Enchantment.PROTECTION_PROJECTILE);
-
-        this.projectileDefense += (Math.pow(protectionLevel, 2));
+        this.projectileDefense = (int) Math.pow(protectionLevel, 2);
     }
 
     public double calculateBaseHealth() {
@@ -203,21 +317,16 @@ public class LeveledPlayer {
 
     private double calculateBonusHealth() {
         double growthFactor = 0;
-        // Attempt to grab the Growth enchant level for all gear, if we get a nullptr, they don't have a helmet, if we get an illegalarg, they dont have growth
-        ItemStack[] armorPieces = new ItemStack[]{this.helmet, this.chestplate, this.leggings, this.boots};
-        for (ItemStack armor : armorPieces){
-            if (armor != null && armor.getItemMeta() != null)
-                growthFactor += armor.getEnchantmentLevel(EnchantmentManager.GROWTH);
-        }
+        for (ArmorPieceStats piece : armor)
+            growthFactor += piece.getGrowth();
 
         // Best growth currently is Growth %5 x 20, so best HP we can have is +100% HP
         spigotPlayer.setHealthScale(Math.min(20 + growthFactor, 40));
-        this.bonusHealth = growthFactor * .05 * calculateBaseHealth();
-        return this.bonusHealth;
+        return growthFactor * .05 * calculateBaseHealth();
     }
 
     private void calculateTotalHealth(){
-        double totalHealth = calculateBonusHealth() + calculateBaseHealth();
+        double totalHealth = bonusHealth + calculateBaseHealth();
         AttributeInstance playerMaxHPAttribute = spigotPlayer.getAttribute(Attribute.GENERIC_MAX_HEALTH);
         playerMaxHPAttribute.setBaseValue(totalHealth);
         if (spigotPlayer.getHealth() > playerMaxHPAttribute.getBaseValue())
@@ -226,47 +335,42 @@ public class LeveledPlayer {
 
     private double calculateSpeed() {
         speed = 0.19982229;
-        int speedsterLevel = 0;
-        if (boots != null && boots.getItemMeta() != null)
-            speedsterLevel += boots.getEnchantmentLevel(EnchantmentManager.SPEEDSTER);
+        int speedsterLevel = armor[BOOTS_SLOT].getSpeedster();
         if (speedsterLevel > 0)
             speed += (speedsterLevel * .03);
         spigotPlayer.setWalkSpeed((float) speed);
         return speed;  // TODO: Add armor that modifies speed
     }
 
-    private ArrayList<CustomAbility> calculateAbilities() {
-        ArrayList<CustomAbility> list = new ArrayList<>();
+    /**
+     * Works out which set bonuses the player has from the custom armor they are wearing, nothing is recalculated
+     * unless the set of custom items they are wearing changed
+     */
+    private void calculateAbilities() {
 
-        if (helmet != null && chestplate != null && leggings != null & boots != null) {
-            if (customItemManager.hasFullSetBonus(spigotPlayer, CustomAbility.BOUNDLESS_ROCKETS)){
-                list.add(CustomAbility.BOUNDLESS_ROCKETS);
-                if (abilities != null && !abilities.contains(CustomAbility.BOUNDLESS_ROCKETS))
-                    spigotPlayer.sendTitle(ChatColor.GOLD.toString() + ChatColor.BOLD + "Ability " + ChatColor.WHITE + "Boundless Rockets", ChatColor.GRAY + "Fireworks have a 50% to not consume when Elytra boosting!", 10, 60, 30);
-            }
-        }
+        long equipped = 0;
+        for (ArmorPieceStats piece : armor)
+            equipped |= SetBonus.getMask(piece.getCustomItemType());
 
-        return list;
-    }
+        if (equipped == equippedCustomItems)
+            return;
 
-    /**
-     * All armor in the game has a flat resist value, that is defined here
-     *
-     * @param armor The ItemStack that the player is wearing
-     * @return a dmg amount of resist
-     */
-    private int getBaseArmorDefense(ItemStack armor) {
+        boolean firstCalculation = abilities == null;
+        EnumSet<CustomAbility> newAbilities = EnumSet.noneOf(CustomAbility.class);
+        this.equippedCustomItems = equipped;
 
-        // Try to get a custom defense value
-        CustomItemType type = customItemManager.getCustomItemType(armor);
-        if (type != null && type.CATEGORY == CustomItemType.Category.ARMOR)
-            return type.STAT_AMOUNT;
+        if (SetBonus.isAnyPieceWorn(equipped)) {
+            for (SetBonus set : SetBonus.getSets()) {
+                if (!set.isWorn(equipped))
+                    continue;
 
-        CustomItemType.Category fallbackCategory = CustomItemType.Category.getFallbackCategory(armor.getType());
-        if (fallbackCategory == CustomItemType.Category.ARMOR)
-            return CustomItemType.getFallbackStat(armor.getType());
+                newAbilities.add(set.ABILITY);
+                if (!firstCalculation && !abilities.contains(set.ABILITY))
+                    spigotPlayer.sendTitle(ChatColor.GOLD.toString() + ChatColor.BOLD + "Ability " + ChatColor.WHITE + set.NAME, set.DESCRIPTION, 10, 60, 30);
+            }
+        }
 
-        return 0;
+        this.abilities = newAbilities;
     }
 
 
@@ -3,53 +3,176 @@ package me.devvy.leveled.player;
 import com.destroystokyo.paper.event.player.PlayerArmorChangeEvent;
 import me.devvy.leveled.Leveled;
 import me.devvy.leveled.events.EntityDamagedByMiscEvent;
-import me.devvy.leveled.player.abilities.AbilityBoundlessRockets;
-import me.devvy.leveled.player.abilities.AbilityExpertCrafter;
+import me.devvy.leveled.party.Party;
+import me.devvy.leveled.party.PartyManager;
+import me.devvy.leveled.player.abilities.AbilityManager;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityPotionEffectEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLevelChangeEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.scheduler.BukkitRunnable;
 
-import java.util.HashMap;
-
 /**
  * This manager is in charge for any stats and abilities for players
  */
 public class LeveledPlayerManager implements Listener {
 
+    // How often everyone online gets their profile saved in case the server crashes, if the config doesn't say
+    private static final int DEFAULT_AUTOSAVE_INTERVAL_TICKS = 20 * 60 * 5;
+
     private final Leveled plugin;
-    private final HashMap<Player, LeveledPlayer> playerArmorAttributesMap;
+    private final LeveledPlayerRegistry registry;
+    private final AttributeUpdateScheduler attributeUpdateScheduler;
+    private final ExperienceGrantAccumulator experienceGrantAccumulator;
+    private final AbilityManager abilityManager;
+
+    private class SnapshotTask extends BukkitRunnable {
+
+        @Override
+        public void run() {
+            publishSnapshots();
+        }
+    }
+
+    private class AutosaveTask extends BukkitRunnable {
+
+        @Override
+        public void run() {
+            saveAllProfiles();
+        }
+    }
 
     public LeveledPlayerManager(Leveled plugin) {
         this.plugin = plugin;
-        playerArmorAttributesMap = new HashMap<>();
+        registry = new LeveledPlayerRegistry();
+        attributeUpdateScheduler = new AttributeUpdateScheduler(plugin, this);
+        experienceGrantAccumulator = new ExperienceGrantAccumulator(plugin, this);
+        abilityManager = new AbilityManager(plugin);
         for (Player player : plugin.getServer().getOnlinePlayers())
-            playerArmorAttributesMap.put(player, new LeveledPlayer(plugin.getCustomItemManager(), player));
+            registry.register(createLeveledPlayer(player));
 
-        // Register ability classes
-        plugin.getServer().getPluginManager().registerEvents(new AbilityExpertCrafter(), plugin);
-        plugin.getServer().getPluginManager().registerEvents(new AbilityBoundlessRockets(), plugin);
+        new SnapshotTask().runTaskTimer(plugin, 1, 1);
+        int autosaveInterval = Math.max(1, plugin.getConfig().getInt("profiles.autosave-interval-ticks", DEFAULT_AUTOSAVE_INTERVAL_TICKS));
+        new AutosaveTask().runTaskTimer(plugin, autosaveInterval, autosaveInterval);
     }
 
+    /**
+     * Marks a player's attributes as out of date, they are recalculated once on the next tick no matter how many times
+     * this is called before then
+     *
+     * @param player The player whose attributes need to be recalculated
+     */
     public void updateLeveledPlayerAttributes(Player player){
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (!playerArmorAttributesMap.containsKey(player))
-                    playerArmorAttributesMap.put(player, new LeveledPlayer(plugin.getCustomItemManager(), player));
-                else
-                    playerArmorAttributesMap.get(player).updateAttributes();
-            }
-        }.runTaskLater(plugin, 1);
+        attributeUpdateScheduler.markStale(player);
+    }
+
+    /**
+     * Recalculates a player's attributes right now, use updateLeveledPlayerAttributes unless you need them this instant
+     *
+     * @param player The player whose attributes need to be recalculated
+     */
+    public void recalculateAttributes(Player player){
+        LeveledPlayer leveledPlayer = getLeveledPlayer(player);
+        leveledPlayer.updateAttributes();
+        abilityManager.update(player.getUniqueId(), leveledPlayer.getAbilities());
+    }
+
+    /**
+     * Gives a player experience at the end of the tick, along with any other experience they earn this tick
+     *
+     * @param player The player earning experience
+     * @param source Where the experience came from
+     * @param amount How much experience was earned
+     * @param bonus True if this was a bonus, shown on the action bar
+     */
+    public void grantExperience(Player player, ExperienceSource source, int amount, boolean bonus){
+        experienceGrantAccumulator.grant(player, source, amount, bonus);
     }
 
     public LeveledPlayer getLeveledPlayer(Player player){
-        if (playerArmorAttributesMap.containsKey(player))
-            return playerArmorAttributesMap.get(player);
-        return playerArmorAttributesMap.put(player, new LeveledPlayer(plugin.getCustomItemManager(), player));
+        LeveledPlayer leveledPlayer = registry.get(player.getUniqueId());
+
+        // If we don't know about this player, or we are holding onto an old Player object from a previous login, make a new one
+        if (leveledPlayer == null || leveledPlayer.getSpigotPlayer() != player) {
+            leveledPlayer = createLeveledPlayer(player);
+            registry.register(leveledPlayer);
+        }
+
+        return leveledPlayer;
+    }
+
+    private LeveledPlayer createLeveledPlayer(Player player){
+        LeveledPlayer leveledPlayer = new LeveledPlayer(plugin.getCustomItemManager(), player);
+        leveledPlayer.loadProfile(plugin.getProfileLoader().getProfile(player));
+        abilityManager.update(player.getUniqueId(), leveledPlayer.getAbilities());
+        return leveledPlayer;
+    }
+
+    /**
+     * Hands a snapshot of the player to the profile store, which writes it to disk in the background, and updates
+     * what /stats shows for them while they are offline
+     *
+     * @param player The player to save
+     */
+    public void saveProfile(Player player){
+        // Players that leave while downed bleed out, and dying resets their downs
+        PartyManager partyManager = plugin.getPartyManager();
+        int numDowns = partyManager == null || partyManager.isDown(player) ? 0 : partyManager.getNumDowns(player);
+        LeveledPlayer leveledPlayer = getLeveledPlayer(player);
+        plugin.getProfileStore().save(leveledPlayer.createProfile(numDowns));
+        plugin.getStatsIndex().update(leveledPlayer);
+    }
+
+    public void saveAllProfiles(){
+        for (Player player : plugin.getServer().getOnlinePlayers())
+            saveProfile(player);
+    }
+
+    /**
+     * Health, parties and downs change in too many places to publish from each of them, so once a tick we check every
+     * player and publish a new snapshot for anyone whose snapshot is out of date
+     */
+    public void publishSnapshots(){
+        PartyManager partyManager = plugin.getPartyManager();
+        for (int slot = 0; slot < registry.getSlotCount(); slot++) {
+            LeveledPlayer leveledPlayer = registry.get(slot);
+            if (leveledPlayer == null)
+                continue;
+
+            Player player = leveledPlayer.getSpigotPlayer();
+            Party party = partyManager != null ? partyManager.getParty(player) : null;
+            leveledPlayer.publishSnapshot(party != null ? party.getOwnerId() : null, partyManager != null && partyManager.isDown(player));
+        }
+    }
+
+    /**
+     * Gets the last published snapshot of a player, safe to call from any thread
+     *
+     * @param player The player to get the snapshot of
+     * @return Their snapshot, null if we don't know about them yet
+     */
+    public PlayerSnapshot getSnapshot(Player player){
+        return registry.getSnapshot(player.getUniqueId());
+    }
+
+    public LeveledPlayerRegistry getRegistry() {
+        return registry;
+    }
+
+    public AttributeUpdateScheduler getAttributeUpdateScheduler() {
+        return attributeUpdateScheduler;
+    }
+
+    public ExperienceGrantAccumulator getExperienceGrantAccumulator() {
+        return experienceGrantAccumulator;
+    }
+
+    public AbilityManager getAbilityManager() {
+        return abilityManager;
     }
 
     @EventHandler(priority = EventPriority.HIGHEST)
@@ -57,15 +180,44 @@ public class LeveledPlayerManager implements Listener {
         updateLeveledPlayerAttributes(event.getPlayer());
     }
 
+    /**
+     * Potion effects feed into the combat profile, so rebuild it whenever a player gains, loses, or changes one
+     *
+     * @param event The EntityPotionEffectEvent we are listening to
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerPotionEffectChanged(EntityPotionEffectEvent event){
+
+        if (!(event.getEntity() instanceof Player))
+            return;
+
+        getLeveledPlayer((Player) event.getEntity()).rebuildCombatProfile(event.getModifiedType(), event.getNewEffect());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLevelChange(PlayerLevelChangeEvent event){
+        plugin.getStatsIndex().update(getLeveledPlayer(event.getPlayer()));
+    }
+
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event){
-        playerArmorAttributesMap.remove(event.getPlayer());
-        playerArmorAttributesMap.put(event.getPlayer(), new LeveledPlayer(plugin.getCustomItemManager(), event.getPlayer()));
+        registry.register(createLeveledPlayer(event.getPlayer()));
     }
 
-    @EventHandler
+    /**
+     * Save before anything else reacts to them leaving, the party manager clears their downs when they quit
+     *
+     * @param event The PlayerQuitEvent we are listening to
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerQuitSaveProfile(PlayerQuitEvent event){
+        saveProfile(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerQuit(PlayerQuitEvent event){
-        playerArmorAttributesMap.remove(event.getPlayer());
+        registry.unregister(event.getPlayer().getUniqueId());
+        abilityManager.remove(event.getPlayer().getUniqueId());
     }
 
     @EventHandler
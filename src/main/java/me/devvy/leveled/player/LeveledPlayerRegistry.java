@@ -0,0 +1,139 @@
+package me.devvy.leveled.player;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores every online LeveledPlayer in a flat array. Each player is given a small slot when they are registered and
+ * keeps it until they leave, slots are recycled so the array stays as small as the most players we have had online at
+ * once. Other systems can use the slot number to index their own per player arrays instead of keeping a map.
+ *
+ * Everything here is main thread only except getSnapshot, which reads from a separate concurrent map
+ */
+public class LeveledPlayerRegistry {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private LeveledPlayer[] players;
+    private int[] freeSlots;
+    private int freeSlotCount;
+    private int highestSlot;  // One past the highest slot we have ever handed out
+    private final Map<UUID, Integer> slotIndex;
+    private final ConcurrentHashMap<UUID, LeveledPlayer> concurrentIndex;
+
+    public LeveledPlayerRegistry() {
+        players = new LeveledPlayer[INITIAL_CAPACITY];
+        freeSlots = new int[INITIAL_CAPACITY];
+        freeSlotCount = 0;
+        highestSlot = 0;
+        slotIndex = new HashMap<>();
+        concurrentIndex = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Registers a player, if the player's UUID is already registered the old instance is replaced and keeps its slot
+     *
+     * @param leveledPlayer The LeveledPlayer to store
+     * @return The slot the player was put in
+     */
+    public int register(LeveledPlayer leveledPlayer) {
+
+        UUID id = leveledPlayer.getSpigotPlayer().getUniqueId();
+        concurrentIndex.put(id, leveledPlayer);
+        Integer existingSlot = slotIndex.get(id);
+        if (existingSlot != null) {
+            players[existingSlot] = leveledPlayer;
+            return existingSlot;
+        }
+
+        int slot;
+        if (freeSlotCount > 0)
+            slot = freeSlots[--freeSlotCount];
+        else {
+            slot = highestSlot++;
+            if (slot >= players.length) {
+                players = Arrays.copyOf(players, players.length * 2);
+                freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+            }
+        }
+
+        players[slot] = leveledPlayer;
+        slotIndex.put(id, slot);
+        return slot;
+    }
+
+    /**
+     * Removes a player from the registry, freeing their slot to be used by the next player that joins
+     *
+     * @param id The UUID of the player to remove
+     * @return The LeveledPlayer that was removed, null if they weren't registered
+     */
+    public LeveledPlayer unregister(UUID id) {
+
+        concurrentIndex.remove(id);
+        Integer slot = slotIndex.remove(id);
+        if (slot == null)
+            return null;
+
+        LeveledPlayer removed = players[slot];
+        players[slot] = null;
+        freeSlots[freeSlotCount++] = slot;
+        return removed;
+    }
+
+    /**
+     * @param id The UUID of the player to look for
+     * @return The slot that the player is in, -1 if they aren't registered
+     */
+    public int getSlot(UUID id) {
+        Integer slot = slotIndex.get(id);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * @param id The UUID of the player to look for
+     * @return The LeveledPlayer with that UUID, null if they aren't registered
+     */
+    public LeveledPlayer get(UUID id) {
+        Integer slot = slotIndex.get(id);
+        return slot != null ? players[slot] : null;
+    }
+
+    /**
+     * Gets the last published snapshot of a player, safe to call from any thread
+     *
+     * @param id The UUID of the player to look for
+     * @return Their snapshot, null if they aren't registered
+     */
+    public PlayerSnapshot getSnapshot(UUID id) {
+        LeveledPlayer leveledPlayer = concurrentIndex.get(id);
+        return leveledPlayer != null ? leveledPlayer.getSnapshot() : null;
+    }
+
+    /**
+     * @param slot A slot number, see getSlot
+     * @return The LeveledPlayer in the slot, null if the slot is empty
+     */
+    public LeveledPlayer get(int slot) {
+        if (slot < 0 || slot >= highestSlot)
+            return null;
+        return players[slot];
+    }
+
+    /**
+     * Every slot below this number may have a player in it, useful for looping through every player or sizing arrays
+     *
+     * @return One past the highest slot in use
+     */
+    public int getSlotCount() {
+        return highestSlot;
+    }
+
+    public int size() {
+        return slotIndex.size();
+    }
+
+}
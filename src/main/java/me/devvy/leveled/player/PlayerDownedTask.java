@@ -114,7 +114,7 @@ public class PlayerDownedTask extends BukkitRunnable {
         }
 
         if (!isCancelled())
-            Leveled.getPlugin(Leveled.class).getActionBarManager().dispalyActionBarTextWithExtra(player, ChatColor.DARK_RED + "" + ChatColor.BOLD + "DOWNED! " + getSecondsRemainingWithDecimal() + "s");
+            Leveled.getPlugin(Leveled.class).getActionBarManager().showSegment(player, ActionBarSegment.DOWNED, ChatColor.DARK_RED + "" + ChatColor.BOLD + "DOWNED! " + getSecondsRemainingWithDecimal() + "s");
     }
 
     @Override
@@ -127,6 +127,7 @@ public class PlayerDownedTask extends BukkitRunnable {
         this.player.removePotionEffect(PotionEffectType.SLOW_DIGGING);
         this.player.setGlowing(false);
         this.player.setRemainingAir(20 * 5);
+        Leveled.getPlugin(Leveled.class).getActionBarManager().clearSegment(player, ActionBarSegment.DOWNED);
         super.cancel();
     }
 
@@ -1,41 +1,127 @@
 package me.devvy.leveled.player;
 
+import me.devvy.leveled.Leveled;
 import org.bukkit.ChatColor;
 import org.bukkit.GameMode;
+import org.bukkit.NamespacedKey;
 import org.bukkit.Sound;
+import org.bukkit.entity.Player;
+import org.bukkit.persistence.PersistentDataType;
 
 public class PlayerExperience {
 
 
         public static final int LEVEL_CAP = 100;
 
+        // Players have this key that holds the total experience they have ever earned, the vanilla xp bar is just a display of it
+        public static final NamespacedKey TOTAL_EXPERIENCE_KEY = new NamespacedKey(Leveled.getPlugin(Leveled.class), "total-experience");
+
         private final LeveledPlayer player;
 
+        private long totalExperience;
+        private int level;
+
         public PlayerExperience(LeveledPlayer player) {
             this.player = player;
+
+            Player spigotPlayer = player.getSpigotPlayer();
+            Long storedExperience = spigotPlayer.getPersistentDataContainer().get(TOTAL_EXPERIENCE_KEY, PersistentDataType.LONG);
+
+            // Only trust what we stored if the vanilla level still agrees with it, something else may have changed it
+            if (storedExperience != null && ExperienceCurve.getLevelFromTotalExperience(storedExperience) == spigotPlayer.getLevel()) {
+                this.totalExperience = storedExperience;
+                this.level = spigotPlayer.getLevel();
+            } else
+                syncFromVanilla();
+        }
+
+        /**
+         * Rebuilds our experience from the vanilla level and xp bar. Used when players don't have any stored experience
+         * yet, or if a command or another plugin changed their level behind our back
+         */
+        private void syncFromVanilla(){
+            Player spigotPlayer = player.getSpigotPlayer();
+            int vanillaLevel = Math.min(Math.max(spigotPlayer.getLevel(), 1), LEVEL_CAP);
+            long progress = vanillaLevel >= LEVEL_CAP ? 0 : Math.round(ExperienceCurve.getExperienceRequiredForLevel(vanillaLevel) * (double) spigotPlayer.getExp());
+
+            this.totalExperience = ExperienceCurve.getTotalExperienceForLevel(vanillaLevel) + progress;
+            this.level = vanillaLevel;
+            save();
+        }
+
+        private void checkVanillaLevel(){
+            if (player.getSpigotPlayer().getLevel() != level)
+                syncFromVanilla();
+        }
+
+        private void save(){
+            player.getSpigotPlayer().getPersistentDataContainer().set(TOTAL_EXPERIENCE_KEY, PersistentDataType.LONG, totalExperience);
+            Leveled.getPlugin(Leveled.class).getLeaderboard().update(player.getSpigotPlayer().getUniqueId(), totalExperience);
+        }
+
+        /**
+         * Draws our experience onto the vanilla level and xp bar. If this is a level up we only announce it once no
+         * matter how many levels were gained
+         *
+         * @param oldLevel The level the player was before the change
+         */
+        private void render(int oldLevel){
+            long progress = totalExperience - ExperienceCurve.getTotalExperienceForLevel(level);
+            float percentComplete = level >= LEVEL_CAP ? 1 : (float) ((double) progress / ExperienceCurve.getExperienceRequiredForLevel(level));
+            player.getSpigotPlayer().setLevel(level);
+            player.getSpigotPlayer().setExp(percentComplete);
+            player.publishSnapshot();
+
+            if (level <= oldLevel)
+                return;
+
+            player.getSpigotPlayer().sendMessage(ChatColor.GOLD +""+ ChatColor.BOLD + "LEVEL UP! " + ChatColor.DARK_GREEN + oldLevel + ChatColor.GRAY + " -> " + ChatColor.GREEN + level);
+            player.getSpigotPlayer().getWorld().playSound(player.getSpigotPlayer().getEyeLocation(), Sound.UI_TOAST_CHALLENGE_COMPLETE, .8f, 1);
         }
 
         /**
          * Levels the player up regardless of what their experience or level is
          */
         public void levelUp(){
+            setLevel(getLevel() + 1);
+        }
+
+        /**
+         * Puts the player at the start of some level, throwing away any progress towards the next one
+         *
+         * @param newLevel The level to set the player to
+         */
+        public void setLevel(int newLevel){
             int oldLevel = player.getSpigotPlayer().getLevel();
-            player.getSpigotPlayer().setLevel(oldLevel + 1);
-            player.getSpigotPlayer().setExp(0);
-            int newLevel = player.getSpigotPlayer().getLevel();
-            player.getSpigotPlayer().sendMessage(ChatColor.GOLD +""+ ChatColor.BOLD + "LEVEL UP! " + ChatColor.DARK_GREEN + oldLevel + ChatColor.GRAY + " -> " + ChatColor.GREEN + newLevel);
-            player.getSpigotPlayer().getWorld().playSound(player.getSpigotPlayer().getEyeLocation(), Sound.UI_TOAST_CHALLENGE_COMPLETE, .8f, 1);
+            newLevel = Math.min(Math.max(newLevel, 1), LEVEL_CAP);
+            this.totalExperience = ExperienceCurve.getTotalExperienceForLevel(newLevel);
+            this.level = newLevel;
+            save();
+            render(oldLevel);
+        }
+
+        public int getLevel(){
+            checkVanillaLevel();
+            return level;
+        }
+
+        /**
+         * Gets the total amount of experience the player has earned since level 1
+         *
+         * @return
+         */
+        public long getTotalExperience(){
+            checkVanillaLevel();
+            return totalExperience;
         }
 
         /**
          * Gets total experience required to level up to the next level
-         * Our formula currently uses the original DND formula, may change later 500*(level^2) - 500 * level
          *
          * @return
          */
         public int getTotalExperienceRequiredForNextLevel(){
-            int level = player.getSpigotPlayer().getLevel() + 1;
-            return 500 * (level * level) - (500 * level);
+            return (int) ExperienceCurve.getExperienceRequiredForLevel(getLevel());
         }
 
         /**
@@ -44,44 +130,41 @@ public class PlayerExperience {
          * @return
          */
         public int getAccumulatedExperienceToNextLevel(){
-            int totalXPNeeded = getTotalExperienceRequiredForNextLevel();
-            float percentComplete = player.getSpigotPlayer().getExp();
-
-            return Math.round(totalXPNeeded * percentComplete);
+            checkVanillaLevel();
+            return (int) (totalExperience - ExperienceCurve.getTotalExperienceForLevel(level));
         }
 
-        public void giveExperience(int amount){
+        /**
+         * Gives the player experience, nothing is given in creative mode or past the level cap
+         *
+         * @param amount How much experience to give
+         * @return How much of it the player actually got
+         */
+        public int giveExperience(int amount){
 
             if (amount <= 0)
-                return;
+                return 0;
 
             // Dont care if they are in creative mode
             if (player.getSpigotPlayer().getGameMode() == GameMode.CREATIVE)
-                return;
-
-            // If they are maxed we dont care
-            if (player.getSpigotPlayer().getLevel() >= LEVEL_CAP){
-                player.getSpigotPlayer().setExp(1);
-                player.getSpigotPlayer().setLevel(LEVEL_CAP);
-                return;
-            }
+                return 0;
 
-            int amountToLevelUp = getTotalExperienceRequiredForNextLevel() - getAccumulatedExperienceToNextLevel();
+            checkVanillaLevel();
+            int oldLevel = level;
 
-            // Is this going to send us over a level
-            if (amount >= amountToLevelUp){
-                int leftoverXP = amount - amountToLevelUp;  // Get leftover xp
-                levelUp();  // Level them up
-                giveExperience(leftoverXP);  // MORE
-                return;
+            // If they are maxed we dont care
+            if (oldLevel >= LEVEL_CAP){
+                render(oldLevel);
+                return 0;
             }
 
-            // Don't matta, just give them what they need
-            int newXPAmount = getAccumulatedExperienceToNextLevel() + amount;
-            double percentComplete = (double)newXPAmount / (double)getTotalExperienceRequiredForNextLevel();
-            player.getSpigotPlayer().setExp((float) percentComplete);
-
-
+            // Figure out where they end up all at once, rather than going a level at a time
+            long oldTotal = totalExperience;
+            this.totalExperience = Math.min(totalExperience + amount, ExperienceCurve.getMaxTotalExperience());
+            this.level = ExperienceCurve.getLevelFromTotalExperience(totalExperience);
+            save();
+            render(oldLevel);
+            return (int) (totalExperience - oldTotal);
         }
 
 }
@@ -0,0 +1,272 @@
+package me.devvy.leveled.player;
+
+import me.devvy.leveled.Leveled;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.*;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps track of where every online player is and what level they are, bucketed into square cells a few chunks wide.
+ * Every cell keeps a running total of its players' levels so questions like "what is the average level of players
+ * near this mob" only have to add up the handful of cells around it instead of asking the world for nearby players.
+ *
+ * Since we work with whole cells the radius is rounded out to the edges of the cells it touches, so a lookup can
+ * count players up to one cell further away than asked for. That is close enough for scaling mob levels
+ */
+public class PlayerLevelGrid implements Listener {
+
+    // How wide a cell is in blocks, 8 chunks TODO: make config option
+    private static final int CELL_SHIFT = 7;
+
+    // How often we re-place every player, catches anyone who moved without a move event (riding a vehicle etc)
+    private static final int RESYNC_INTERVAL = 20 * 5;
+
+    private final Leveled plugin;
+    private final Map<UUID, WorldCells> worlds;
+    private final Map<UUID, Placement> placements;
+
+    private static class Cell {
+        private int count = 0;
+        private long levelSum = 0;
+    }
+
+    private static class WorldCells {
+        private final Map<Long, Cell> cells = new HashMap<>();
+        private int count = 0;
+        private long levelSum = 0;
+    }
+
+    /**
+     * Where we last put a player, so we can take them back out of the right cell
+     */
+    private static class Placement {
+        private final UUID world;
+        private final long cell;
+        private final int level;
+
+        private Placement(UUID world, long cell, int level) {
+            this.world = world;
+            this.cell = cell;
+            this.level = level;
+        }
+    }
+
+    private class ResyncTask extends BukkitRunnable {
+
+        @Override
+        public void run() {
+            for (Player player : plugin.getServer().getOnlinePlayers())
+                place(player, player.getLocation(), player.getLevel());
+        }
+    }
+
+    public PlayerLevelGrid(Leveled plugin) {
+
+        this.plugin = plugin;
+        this.worlds = new HashMap<>();
+        this.placements = new HashMap<>();
+
+        // Anyone already online if we were reloaded
+        for (Player player : plugin.getServer().getOnlinePlayers())
+            place(player, player.getLocation(), player.getLevel());
+
+        new ResyncTask().runTaskTimer(plugin, RESYNC_INTERVAL, RESYNC_INTERVAL);
+    }
+
+    private static int toCell(double blockCoordinate) {
+        return (int) Math.floor(blockCoordinate) >> CELL_SHIFT;
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    private static long cellKey(Location location) {
+        return cellKey(toCell(location.getX()), toCell(location.getZ()));
+    }
+
+    /**
+     * Moves a player into the cell for a location, does nothing if they are already there at that level
+     */
+    private void place(Player player, Location location, int level) {
+
+        UUID worldId = location.getWorld().getUID();
+        long cell = cellKey(location);
+
+        Placement previous = placements.get(player.getUniqueId());
+        if (previous != null && previous.cell == cell && previous.level == level && previous.world.equals(worldId))
+            return;
+
+        remove(player.getUniqueId());
+
+        WorldCells worldCells = worlds.computeIfAbsent(worldId, k -> new WorldCells());
+        Cell playerCell = worldCells.cells.computeIfAbsent(cell, k -> new Cell());
+        playerCell.count++;
+        playerCell.levelSum += level;
+        worldCells.count++;
+        worldCells.levelSum += level;
+
+        placements.put(player.getUniqueId(), new Placement(worldId, cell, level));
+    }
+
+    private void remove(UUID playerId) {
+
+        Placement placement = placements.remove(playerId);
+        if (placement == null)
+            return;
+
+        WorldCells worldCells = worlds.get(placement.world);
+        if (worldCells == null)
+            return;
+
+        worldCells.count--;
+        worldCells.levelSum -= placement.level;
+
+        Cell cell = worldCells.cells.get(placement.cell);
+        if (cell == null)
+            return;
+
+        cell.count--;
+        cell.levelSum -= placement.level;
+        if (cell.count <= 0)
+            worldCells.cells.remove(placement.cell);
+    }
+
+    /**
+     * Adds up the players in every cell within a distance of a location
+     *
+     * @return The number of players and the sum of their levels, {count, levelSum}
+     */
+    private long[] sumNearby(Location location, int distance) {
+
+        long[] totals = new long[2];
+        WorldCells worldCells = worlds.get(location.getWorld().getUID());
+        if (worldCells == null || worldCells.count == 0)
+            return totals;
+
+        int minX = toCell(location.getX() - distance);
+        int maxX = toCell(location.getX() + distance);
+        int minZ = toCell(location.getZ() - distance);
+        int maxZ = toCell(location.getZ() + distance);
+
+        // Usually there are way fewer occupied cells than cells in range, in that case just check each occupied one
+        long cellsInRange = (long) (maxX - minX + 1) * (maxZ - minZ + 1);
+        if (worldCells.cells.size() < cellsInRange) {
+            for (Map.Entry<Long, Cell> entry : worldCells.cells.entrySet()) {
+                int cellX = (int) (entry.getKey() >> 32);
+                int cellZ = (int) (long) entry.getKey();
+                if (cellX < minX || cellX > maxX || cellZ < minZ || cellZ > maxZ)
+                    continue;
+                totals[0] += entry.getValue().count;
+                totals[1] += entry.getValue().levelSum;
+            }
+            return totals;
+        }
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                Cell cell = worldCells.cells.get(cellKey(x, z));
+                if (cell == null)
+                    continue;
+                totals[0] += cell.count;
+                totals[1] += cell.levelSum;
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * @param location Where to look from
+     * @param distance How far away players can be, rounded out to whole cells
+     * @return The average level of players near the location, 0 if nobody is around
+     */
+    public int getAverageLevelNearby(Location location, int distance) {
+        long[] totals = sumNearby(location, distance);
+        return totals[0] > 0 ? (int) (totals[1] / totals[0]) : 0;
+    }
+
+    /**
+     * @param location Where to look from
+     * @param distance How far away players can be, rounded out to whole cells
+     * @return How many players are near the location
+     */
+    public int getPlayerCountNearby(Location location, int distance) {
+        return (int) sumNearby(location, distance)[0];
+    }
+
+    /**
+     * @param world The world to check
+     * @return How many players are in the world
+     */
+    public int getPlayerCount(World world) {
+        WorldCells worldCells = worlds.get(world.getUID());
+        return worldCells != null ? worldCells.count : 0;
+    }
+
+    /**
+     * @param world The world to check
+     * @return The average level of every player in the world, 0 if it's empty
+     */
+    public int getAverageLevel(World world) {
+        WorldCells worldCells = worlds.get(world.getUID());
+        return worldCells != null && worldCells.count > 0 ? (int) (worldCells.levelSum / worldCells.count) : 0;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        place(event.getPlayer(), event.getPlayer().getLocation(), event.getPlayer().getLevel());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        remove(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMove(PlayerMoveEvent event) {
+
+        Location from = event.getFrom();
+        Location to = event.getTo();
+
+        // Most moves don't leave the cell, don't bother looking anything up for those
+        if (from.getWorld() == to.getWorld() && toCell(from.getX()) == toCell(to.getX()) && toCell(from.getZ()) == toCell(to.getZ()))
+            return;
+
+        place(event.getPlayer(), to, event.getPlayer().getLevel());
+    }
+
+    /**
+     * Teleports (and portals) have their own handler list so onMove never sees them
+     *
+     * @param event The PlayerTeleportEvent we are listening to
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(PlayerTeleportEvent event) {
+        place(event.getPlayer(), event.getTo(), event.getPlayer().getLevel());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChangedWorld(PlayerChangedWorldEvent event) {
+        place(event.getPlayer(), event.getPlayer().getLocation(), event.getPlayer().getLevel());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(PlayerRespawnEvent event) {
+        place(event.getPlayer(), event.getRespawnLocation(), event.getPlayer().getLevel());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLevelChange(PlayerLevelChangeEvent event) {
+        place(event.getPlayer(), event.getPlayer().getLocation(), event.getNewLevel());
+    }
+
+}
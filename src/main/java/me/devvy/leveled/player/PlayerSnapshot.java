@@ -0,0 +1,69 @@
+package me.devvy.leveled.player;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A read only copy of the parts of a player that other threads care about. The main thread builds a new one whenever
+ * something in it changes and swaps it in all at once, so the async chat thread (or anything else off the main thread)
+ * can read a player's level and health without touching the Player and without ever seeing half of an update
+ */
+public final class PlayerSnapshot {
+
+    private final UUID id;
+    private final int level;
+    private final long totalExperience;
+    private final double health;
+    private final double maxHealth;
+    private final UUID partyId;
+    private final boolean downed;
+
+    public PlayerSnapshot(UUID id, int level, long totalExperience, double health, double maxHealth, UUID partyId, boolean downed) {
+        this.id = id;
+        this.level = level;
+        this.totalExperience = totalExperience;
+        this.health = health;
+        this.maxHealth = maxHealth;
+        this.partyId = partyId;
+        this.downed = downed;
+    }
+
+    /**
+     * Checks if this snapshot already says the same thing as the given values, so we don't make a new one every tick
+     */
+    public boolean matches(int level, long totalExperience, double health, double maxHealth, UUID partyId, boolean downed) {
+        return this.level == level && this.totalExperience == totalExperience && this.health == health
+                && this.maxHealth == maxHealth && Objects.equals(this.partyId, partyId) && this.downed == downed;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public long getTotalExperience() {
+        return totalExperience;
+    }
+
+    public double getHealth() {
+        return health;
+    }
+
+    public double getMaxHealth() {
+        return maxHealth;
+    }
+
+    /**
+     * @return The UUID of the owner of the player's party, null if they aren't in one
+     */
+    public UUID getPartyId() {
+        return partyId;
+    }
+
+    public boolean isDowned() {
+        return downed;
+    }
+}
@@ -14,14 +14,15 @@ import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scoreboard.*;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.NoSuchElementException;
+import java.util.UUID;
 
 public class ScoreboardManager implements Listener {
 
     private final Leveled plugin;
-    private final HashMap<Player, Scoreboard> playerScoreboardMap;
+    private final HashMap<UUID, Sidebar> playerSidebars;
+    private final HashMap<UUID, MemberLine> memberLines;
 
     private final String DEFAULT_HEADER = ChatColor.GREEN + "" + ChatColor.BOLD +  "Minecraft Leveled";
     private final String DEFAULT_ONLINE_HEADER = ChatColor.DARK_PURPLE + "" + ChatColor.BOLD + ">" + ChatColor.LIGHT_PURPLE + "" + ChatColor.BOLD + " Online Players";
@@ -38,18 +39,108 @@ public class ScoreboardManager implements Listener {
     private final String DEFAULT_PARTY_FOUR_KEY = "partySlot4";
     private final String DEFAULT_PARTY_FOUR_ENTRY = ChatColor.YELLOW + "" + ChatColor.BLACK;
 
+    private final String EMPTY_PARTY_SLOT = ChatColor.DARK_GRAY + "Empty... use /party! ";
+    private static final int PARTY_SLOTS = 4;
+
+    /**
+     * The sidebar we gave a player, along with what every line on it currently says. Lines are only sent to the
+     * player when what they should say is different from what they already say
+     */
+    private class Sidebar {
+
+        private final Team onlineCounter;
+        private final Team[] partySlots;
+        private final String[] prefixes;
+        private final String[] suffixes;
+        private String onlineLine;
+
+        private Sidebar(Scoreboard scoreboard) {
+            this.onlineCounter = scoreboard.getTeam(DEFAULT_ONLINE_KEY);
+            this.partySlots = new Team[]{
+                    scoreboard.getTeam(DEFAULT_PARTY_ONE_KEY),
+                    scoreboard.getTeam(DEFAULT_PARTY_TWO_KEY),
+                    scoreboard.getTeam(DEFAULT_PARTY_THREE_KEY),
+                    scoreboard.getTeam(DEFAULT_PARTY_FOUR_KEY)
+            };
+            this.prefixes = new String[PARTY_SLOTS];
+            this.suffixes = new String[PARTY_SLOTS];
+            for (int slot = 0; slot < PARTY_SLOTS; slot++) {
+                prefixes[slot] = partySlots[slot].getPrefix();
+                suffixes[slot] = partySlots[slot].getSuffix();
+            }
+            this.onlineLine = onlineCounter.getPrefix();
+        }
+
+        private void setOnlineLine(String line) {
+            if (line.equals(onlineLine))
+                return;
+            onlineLine = line;
+            onlineCounter.setPrefix(line);
+        }
+
+        private void setPartySlot(int slot, String prefix, String suffix) {
+            if (!prefix.equals(prefixes[slot])) {
+                prefixes[slot] = prefix;
+                partySlots[slot].setPrefix(prefix);
+            }
+            if (!suffix.equals(suffixes[slot])) {
+                suffixes[slot] = suffix;
+                partySlots[slot].setSuffix(suffix);
+            }
+        }
+    }
+
+    /**
+     * How a player shows up in the party section of the sidebar. The text is only rebuilt when something it is built
+     * from changes, and is shared between everyone in their party
+     */
+    private class MemberLine {
+
+        private int level = -1;
+        private String displayName;
+        private int health = -1;
+        private String healthColor;
+        private int secondsDowned = -2;
+
+        private String ownerPrefix;
+        private String memberPrefix;
+        private String suffix;
+
+        private void update(Player player) {
+
+            int level = player.getLevel();
+            String displayName = player.getDisplayName();
+            if (level != this.level || !displayName.equals(this.displayName)) {
+                this.level = level;
+                this.displayName = displayName;
+                this.ownerPrefix = getPartyMemberPrefix(player, true);
+                this.memberPrefix = getPartyMemberPrefix(player, false);
+            }
+
+            int secondsDowned = plugin.getPartyManager().getTimeRemainingDowned(player);
+            int health = (int) player.getHealth();
+            String healthColor = PlayerNametags.getChatColorFromHealth(player.getHealth(), player.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue());
+            if (secondsDowned != this.secondsDowned || health != this.health || !healthColor.equals(this.healthColor)) {
+                this.secondsDowned = secondsDowned;
+                this.health = health;
+                this.healthColor = healthColor;
+                this.suffix = secondsDowned != -1 ? ChatColor.RED + " ☠" + ChatColor.DARK_RED + secondsDowned : ChatColor.DARK_RED + " ❤" + healthColor + health;
+            }
+        }
+    }
+
     private class ScoreboardUpdater extends BukkitRunnable {
 
         @Override
         public void run() {
-            for (Player p : playerScoreboardMap.keySet())
-                updateDefaultPlayerScoreboard(p);
+            updateSidebars();
         }
     }
 
     public ScoreboardManager(Leveled plugin) {
         this.plugin = plugin;
-        playerScoreboardMap = new HashMap<>();
+        playerSidebars = new HashMap<>();
+        memberLines = new HashMap<>();
         for (Player player : plugin.getServer().getOnlinePlayers())
             setDefaultPlayerScoreboard(player);
         new ScoreboardUpdater().runTaskTimer(plugin, 20, 20);
@@ -64,12 +155,14 @@ public class ScoreboardManager implements Listener {
         return ChatColor.GRAY + "Lv. " +  player.getLevel() + " " + nameColor + player.getDisplayName();
     }
 
-    private String getPartyMemberSuffix(Player player){
-
-        if (plugin.getPartyManager().getTimeRemainingDowned(player) != -1)
-            return ChatColor.RED + " ☠" + ChatColor.DARK_RED + plugin.getPartyManager().getTimeRemainingDowned(player);
-
-        return ChatColor.DARK_RED + " ❤" + PlayerNametags.getChatColorFromHealth(player.getHealth(), player.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue()) + (int) player.getHealth();
+    private MemberLine getMemberLine(Player player){
+        MemberLine line = memberLines.get(player.getUniqueId());
+        if (line == null) {
+            line = new MemberLine();
+            line.update(player);
+            memberLines.put(player.getUniqueId(), line);
+        }
+        return line;
     }
 
     private void setDefaultPlayerScoreboard(Player player){
@@ -94,92 +187,74 @@ public class ScoreboardManager implements Listener {
         Score partyHeader = objective.getScore(DEFAULT_PARTY_HEADER);
         partyHeader.setScore(11);
 
+        MemberLine ownLine = getMemberLine(player);
         Team partySlot1 = scoreboard.registerNewTeam(DEFAULT_PARTY_ONE_KEY);
         partySlot1.addEntry(DEFAULT_PARTY_ONE_ENTRY);
-        partySlot1.setPrefix(getPartyMemberPrefix(player, true));
-        partySlot1.setSuffix(getPartyMemberSuffix(player));
+        partySlot1.setPrefix(ownLine.ownerPrefix);
+        partySlot1.setSuffix(ownLine.suffix);
         objective.getScore(DEFAULT_PARTY_ONE_ENTRY).setScore(10);
 
         Team partySlot2 = scoreboard.registerNewTeam(DEFAULT_PARTY_TWO_KEY);
         partySlot2.addEntry(DEFAULT_PARTY_TWO_ENTRY);
-        partySlot2.setPrefix(ChatColor.DARK_GRAY + "Empty... use /party! ");
+        partySlot2.setPrefix(EMPTY_PARTY_SLOT);
         objective.getScore(DEFAULT_PARTY_TWO_ENTRY).setScore(9);
 
         Team partySlot3 = scoreboard.registerNewTeam(DEFAULT_PARTY_THREE_KEY);
         partySlot3.addEntry(DEFAULT_PARTY_THREE_ENTRY);
-        partySlot3.setPrefix(ChatColor.DARK_GRAY + "Empty... use /party! ");
+        partySlot3.setPrefix(EMPTY_PARTY_SLOT);
         objective.getScore(DEFAULT_PARTY_THREE_ENTRY).setScore(8);
 
         Team partySlot4 = scoreboard.registerNewTeam(DEFAULT_PARTY_FOUR_KEY);
         partySlot4.addEntry(DEFAULT_PARTY_FOUR_ENTRY);
-        partySlot4.setPrefix(ChatColor.DARK_GRAY + "Empty... use /party! ");
+        partySlot4.setPrefix(EMPTY_PARTY_SLOT);
         objective.getScore(DEFAULT_PARTY_FOUR_ENTRY).setScore(7);
 
         player.setScoreboard(scoreboard);
-        playerScoreboardMap.remove(player);
-        playerScoreboardMap.put(player, scoreboard);
+        playerSidebars.put(player.getUniqueId(), new Sidebar(scoreboard));
     }
 
-    private void updateDefaultPlayerScoreboard(Player player){
+    /**
+     * Brings every sidebar up to date. Every player's line is worked out once no matter how many sidebars it is on,
+     * and each sidebar only gets sent the lines that changed
+     */
+    private void updateSidebars(){
+
+        Collection<? extends Player> onlinePlayers = plugin.getServer().getOnlinePlayers();
+        for (Player player : onlinePlayers)
+            getMemberLine(player).update(player);
+
+        String onlineLine = getOnlinePlayersString();
+        for (Player player : onlinePlayers)
+            updateDefaultPlayerScoreboard(player, onlineLine);
+    }
 
-        if (!playerScoreboardMap.containsKey(player)){
+    private void updateDefaultPlayerScoreboard(Player player, String onlineLine){
+
+        Sidebar sidebar = playerSidebars.get(player.getUniqueId());
+        if (sidebar == null){
             setDefaultPlayerScoreboard(player);
             return;
         }
 
-        Scoreboard scoreboard = playerScoreboardMap.get(player);
-        scoreboard.getTeam(DEFAULT_ONLINE_KEY).setPrefix(getOnlinePlayersString());
+        sidebar.setOnlineLine(onlineLine);
 
-        scoreboard.getTeam(DEFAULT_PARTY_ONE_KEY).setPrefix(getPartyMemberPrefix(player, true));
-        scoreboard.getTeam(DEFAULT_PARTY_ONE_KEY).setSuffix(getPartyMemberSuffix(player));
+        MemberLine ownLine = getMemberLine(player);
+        sidebar.setPartySlot(0, ownLine.ownerPrefix, ownLine.suffix);
 
+        ArrayList<Player> members = new ArrayList<>();
         Party party = plugin.getPartyManager().getParty(player);
-        if (party != null){
-
-            ArrayList<Player> members = new ArrayList<>(party.getMembers());
-            members.remove(player);
-            Iterator<Player> memberIterator = members.iterator();
-
-            try {
-                Player member = memberIterator.next();
-                scoreboard.getTeam(DEFAULT_PARTY_TWO_KEY).setPrefix(getPartyMemberPrefix(member, false));
-                scoreboard.getTeam(DEFAULT_PARTY_TWO_KEY).setSuffix(getPartyMemberSuffix(member));
-            } catch (NoSuchElementException ignored){
-                scoreboard.getTeam(DEFAULT_PARTY_TWO_KEY).setPrefix(ChatColor.DARK_GRAY + "Empty... use /party! ");
-                scoreboard.getTeam(DEFAULT_PARTY_TWO_KEY).setSuffix("");
-            }
-
-            try {
-                Player member = memberIterator.next();
-                scoreboard.getTeam(DEFAULT_PARTY_THREE_KEY).setPrefix(getPartyMemberPrefix(member, false));
-                scoreboard.getTeam(DEFAULT_PARTY_THREE_KEY).setSuffix(getPartyMemberSuffix(member));
-            } catch (NoSuchElementException ignored){
-                scoreboard.getTeam(DEFAULT_PARTY_THREE_KEY).setPrefix(ChatColor.DARK_GRAY + "Empty... use /party! ");
-                scoreboard.getTeam(DEFAULT_PARTY_THREE_KEY).setSuffix("");
-            }
-
-            try {
-                Player member = memberIterator.next();
-                scoreboard.getTeam(DEFAULT_PARTY_FOUR_KEY).setPrefix(getPartyMemberPrefix(member, false));
-                scoreboard.getTeam(DEFAULT_PARTY_FOUR_KEY).setSuffix(getPartyMemberSuffix(member));
-            } catch (NoSuchElementException ignored){
-                scoreboard.getTeam(DEFAULT_PARTY_FOUR_KEY).setPrefix(ChatColor.DARK_GRAY + "Empty... use /party! ");
-                scoreboard.getTeam(DEFAULT_PARTY_FOUR_KEY).setSuffix("");
-            }
-
-        } else {
-
-            scoreboard.getTeam(DEFAULT_PARTY_TWO_KEY).setPrefix(ChatColor.DARK_GRAY + "Empty... use /party! ");
-            scoreboard.getTeam(DEFAULT_PARTY_TWO_KEY).setSuffix("");
-
-            scoreboard.getTeam(DEFAULT_PARTY_THREE_KEY).setPrefix(ChatColor.DARK_GRAY + "Empty... use /party! ");
-            scoreboard.getTeam(DEFAULT_PARTY_THREE_KEY).setSuffix("");
-
-            scoreboard.getTeam(DEFAULT_PARTY_FOUR_KEY).setPrefix(ChatColor.DARK_GRAY + "Empty... use /party! ");
-            scoreboard.getTeam(DEFAULT_PARTY_FOUR_KEY).setSuffix("");
+        if (party != null)
+            for (Player member : party.getMembers())
+                if (member != player)
+                    members.add(member);
+
+        for (int slot = 1; slot < PARTY_SLOTS; slot++) {
+            if (slot - 1 < members.size()) {
+                MemberLine memberLine = getMemberLine(members.get(slot - 1));
+                sidebar.setPartySlot(slot, memberLine.memberPrefix, memberLine.suffix);
+            } else
+                sidebar.setPartySlot(slot, EMPTY_PARTY_SLOT, "");
         }
-
-
     }
 
     @EventHandler
@@ -189,7 +264,8 @@ public class ScoreboardManager implements Listener {
 
     @EventHandler
     public void onPlayerLeave(PlayerQuitEvent event){
-        playerScoreboardMap.remove(event.getPlayer());
+        playerSidebars.remove(event.getPlayer().getUniqueId());
+        memberLines.remove(event.getPlayer().getUniqueId());
     }
 
 
@@ -1,7 +1,5 @@
 package me.devvy.leveled.player.abilities;
 
-import me.devvy.leveled.Leveled;
-import me.devvy.leveled.player.LeveledPlayer;
 import org.bukkit.Material;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -10,12 +8,16 @@ import org.bukkit.event.player.PlayerInteractEvent;
 
 public class AbilityExpertCrafter implements Listener {
 
+    private final AbilityManager abilityManager;
+
+    public AbilityExpertCrafter(AbilityManager abilityManager) {
+        this.abilityManager = abilityManager;
+    }
+
     @EventHandler(ignoreCancelled = true)
     public void onInteract(PlayerInteractEvent event) {
 
-        LeveledPlayer leveledPlayer = Leveled.getPlugin(Leveled.class).getPlayerManager().getLeveledPlayer(event.getPlayer());
-
-        if (!leveledPlayer.getAbilities().contains(CustomAbility.EXPERT_CRAFTER))
+        if (!abilityManager.hasAbility(event.getPlayer(), CustomAbility.EXPERT_CRAFTER))
             return;
 
         Action action = event.getAction();
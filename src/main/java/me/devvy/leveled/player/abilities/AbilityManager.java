@@ -0,0 +1,78 @@
+package me.devvy.leveled.player.abilities;
+
+import me.devvy.leveled.Leveled;
+import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+
+import java.util.*;
+
+/**
+ * Keeps track of who holds every ability. An ability's listener is only registered while at least one online player
+ * holds it, so when nobody is wearing a set its events never even reach us
+ */
+public class AbilityManager {
+
+    private final Leveled plugin;
+    private final EnumMap<CustomAbility, Set<UUID>> holders;
+    private final EnumMap<CustomAbility, Listener> listeners;
+
+    public AbilityManager(Leveled plugin) {
+        this.plugin = plugin;
+        this.holders = new EnumMap<>(CustomAbility.class);
+        this.listeners = new EnumMap<>(CustomAbility.class);
+
+        for (CustomAbility ability : CustomAbility.values())
+            holders.put(ability, new HashSet<>());
+
+        listeners.put(CustomAbility.BOUNDLESS_ROCKETS, new AbilityBoundlessRockets(this));
+        listeners.put(CustomAbility.EXPERT_CRAFTER, new AbilityExpertCrafter(this));
+    }
+
+    /**
+     * @param player The player to check
+     * @param ability The ability to check for
+     * @return True if the player currently holds the ability
+     */
+    public boolean hasAbility(Player player, CustomAbility ability) {
+        return holders.get(ability).contains(player.getUniqueId());
+    }
+
+    /**
+     * Call whenever a player's abilities are recalculated
+     *
+     * @param id The UUID of the player
+     * @param abilities Every ability the player holds now
+     */
+    public void update(UUID id, Set<CustomAbility> abilities) {
+        for (CustomAbility ability : CustomAbility.values()) {
+            if (abilities.contains(ability))
+                addHolder(ability, id);
+            else
+                removeHolder(ability, id);
+        }
+    }
+
+    /**
+     * Call when a player leaves, they no longer hold anything
+     *
+     * @param id The UUID of the player
+     */
+    public void remove(UUID id) {
+        for (CustomAbility ability : CustomAbility.values())
+            removeHolder(ability, id);
+    }
+
+    private void addHolder(CustomAbility ability, UUID id) {
+        Set<UUID> abilityHolders = holders.get(ability);
+        if (abilityHolders.add(id) && abilityHolders.size() == 1 && listeners.containsKey(ability))
+            plugin.getServer().getPluginManager().registerEvents(listeners.get(ability), plugin);
+    }
+
+    private void removeHolder(CustomAbility ability, UUID id) {
+        Set<UUID> abilityHolders = holders.get(ability);
+        if (abilityHolders.remove(id) && abilityHolders.isEmpty() && listeners.containsKey(ability))
+            HandlerList.unregisterAll(listeners.get(ability));
+    }
+
+}
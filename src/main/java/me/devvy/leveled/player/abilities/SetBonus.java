@@ -0,0 +1,77 @@
+package me.devvy.leveled.player.abilities;
+
+import me.devvy.leveled.items.CustomItemType;
+import org.bukkit.ChatColor;
+
+/**
+ * Every full set bonus in the game. A player's armor is boiled down to a bitmask of the custom item types they are
+ * wearing, so checking a set is a single AND and players that aren't wearing any set pieces don't check anything
+ */
+public enum SetBonus {
+
+    DRAGON(CustomAbility.BOUNDLESS_ROCKETS, "Boundless Rockets", "Fireworks have a 50% to not consume when Elytra boosting!", CustomItemType.DRAGON_HELMET, CustomItemType.DRAGON_CHESTPLATE, CustomItemType.DRAGON_LEGGINGS, CustomItemType.DRAGON_BOOTS),
+    ;
+
+    private static final SetBonus[] VALUES = values();
+
+    // Every custom item type that is part of at least one set
+    private static final long ALL_PIECES;
+
+    static {
+        long allPieces = 0;
+        for (SetBonus set : VALUES)
+            allPieces |= set.PIECES;
+        ALL_PIECES = allPieces;
+    }
+
+    public final CustomAbility ABILITY;
+    public final String NAME;
+    public final String DESCRIPTION;
+    public final long PIECES;
+
+    SetBonus(CustomAbility ability, String name, String description, CustomItemType... pieces) {
+        this.ABILITY = ability;
+        this.NAME = name;
+        this.DESCRIPTION = ChatColor.GRAY + description;
+
+        long mask = 0;
+        for (CustomItemType piece : pieces)
+            mask |= getMask(piece);
+        this.PIECES = mask;
+    }
+
+    /**
+     * Gets the bit that represents a custom item type in an equipment mask
+     *
+     * @param type The custom item type, can be null
+     * @return The bit for the type, 0 if the type is null
+     */
+    public static long getMask(CustomItemType type) {
+        // If we ever have more than 64 custom items this needs to become a BitSet
+        return type != null ? 1L << type.ordinal() : 0;
+    }
+
+    /**
+     * @param equipped The mask of every custom item type a player is wearing
+     * @return True if the player is wearing every piece of this set
+     */
+    public boolean isWorn(long equipped) {
+        return (equipped & PIECES) == PIECES;
+    }
+
+    /**
+     * @param equipped The mask of every custom item type a player is wearing
+     * @return True if the player is wearing at least one piece of any set
+     */
+    public static boolean isAnyPieceWorn(long equipped) {
+        return (equipped & ALL_PIECES) != 0;
+    }
+
+    /**
+     * Same as values() but without copying the array every time
+     */
+    public static SetBonus[] getSets() {
+        return VALUES;
+    }
+
+}
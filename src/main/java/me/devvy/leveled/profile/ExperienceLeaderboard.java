@@ -0,0 +1,255 @@
+package me.devvy.leveled.profile;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Every player we have ever seen, ranked by total experience. Players are kept in a treap (a binary search tree that
+ * stays balanced by giving every node a random priority) where each node knows how big its subtree is, so changing
+ * someone's experience, finding their rank and finding who is at some rank all take O(log n).
+ *
+ * Nothing here is saved on its own, the total experience of every player is already in their profile so the board is
+ * rebuilt from the profile store when the plugin starts and kept up to date from there
+ */
+public class ExperienceLeaderboard {
+
+    private static class Node {
+
+        private final UUID id;
+        private final long totalExperience;
+        private final int priority;
+        private Node left;
+        private Node right;
+        private int size = 1;
+
+        private Node(UUID id, long totalExperience, int priority) {
+            this.id = id;
+            this.totalExperience = totalExperience;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * A single spot on the leaderboard
+     */
+    public static final class Entry {
+
+        private final int rank;
+        private final UUID id;
+        private final long totalExperience;
+
+        private Entry(int rank, UUID id, long totalExperience) {
+            this.rank = rank;
+            this.id = id;
+            this.totalExperience = totalExperience;
+        }
+
+        public int getRank() {
+            return rank;
+        }
+
+        public UUID getId() {
+            return id;
+        }
+
+        public long getTotalExperience() {
+            return totalExperience;
+        }
+    }
+
+    private final HashMap<UUID, Node> nodes;
+    private final Random random;
+    private Node root;
+
+    public ExperienceLeaderboard(Iterable<PlayerProfile> profiles) {
+        this.nodes = new HashMap<>();
+        this.random = new Random();
+        for (PlayerProfile profile : profiles)
+            update(profile.getId(), profile.getTotalExperience());
+    }
+
+    /**
+     * Puts a player at the spot their experience earns them, adding them if they aren't on the board yet
+     *
+     * @param id The UUID of the player
+     * @param totalExperience The total experience they have earned
+     */
+    public void update(UUID id, long totalExperience) {
+
+        Node old = nodes.get(id);
+        if (old != null) {
+            if (old.totalExperience == totalExperience)
+                return;
+            root = remove(root, old);
+        }
+
+        Node node = new Node(id, totalExperience, random.nextInt());
+        root = insert(root, node);
+        nodes.put(id, node);
+    }
+
+    /**
+     * @param id The UUID of the player
+     * @return Their rank starting from 1, -1 if they aren't on the board
+     */
+    public int getRank(UUID id) {
+
+        Node target = nodes.get(id);
+        if (target == null)
+            return -1;
+
+        int rank = 1;
+        Node node = root;
+        while (node != null) {
+            if (node == target)
+                return rank + size(node.left);
+
+            if (isAhead(target, node))
+                node = node.left;
+            else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Gets a slice of the board
+     *
+     * @param firstRank The rank to start at, starting from 1
+     * @param count How many entries to get at most
+     * @return The entries in rank order, fewer than count if the board runs out
+     */
+    public List<Entry> getEntries(int firstRank, int count) {
+
+        ArrayList<Entry> entries = new ArrayList<>(count);
+        for (int rank = Math.max(firstRank, 1); rank < firstRank + count && rank <= size(); rank++) {
+            Node node = select(rank - 1);
+            entries.add(new Entry(rank, node.id, node.totalExperience));
+        }
+        return entries;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * More experience is ahead, ties are broken by UUID so every player has a distinct spot
+     */
+    private static boolean isAhead(Node a, Node b) {
+        if (a.totalExperience != b.totalExperience)
+            return a.totalExperience > b.totalExperience;
+        return a.id.compareTo(b.id) < 0;
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static void resize(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    /**
+     * Finds the node with the given number of nodes ahead of it
+     */
+    private Node select(int index) {
+        Node node = root;
+        while (node != null) {
+            int leftSize = size(node.left);
+            if (index < leftSize)
+                node = node.left;
+            else if (index == leftSize)
+                return node;
+            else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+        return null;
+    }
+
+    private static Node insert(Node tree, Node node) {
+
+        if (tree == null)
+            return node;
+
+        // The new node belongs above this one, so everything under here gets split between its two sides
+        if (node.priority > tree.priority) {
+            Node[] halves = split(tree, node);
+            node.left = halves[0];
+            node.right = halves[1];
+            resize(node);
+            return node;
+        }
+
+        if (isAhead(node, tree))
+            tree.left = insert(tree.left, node);
+        else
+            tree.right = insert(tree.right, node);
+        resize(tree);
+        return tree;
+    }
+
+    /**
+     * Splits a tree into the nodes ahead of the pivot and the nodes behind it
+     */
+    private static Node[] split(Node tree, Node pivot) {
+
+        if (tree == null)
+            return new Node[2];
+
+        Node[] halves;
+        if (isAhead(tree, pivot)) {
+            halves = split(tree.right, pivot);
+            tree.right = halves[0];
+            halves[0] = tree;
+        } else {
+            halves = split(tree.left, pivot);
+            tree.left = halves[1];
+            halves[1] = tree;
+        }
+        resize(tree);
+        return halves;
+    }
+
+    private static Node remove(Node tree, Node node) {
+
+        if (tree == node)
+            return merge(tree.left, tree.right);
+
+        if (isAhead(node, tree))
+            tree.left = remove(tree.left, node);
+        else
+            tree.right = remove(tree.right, node);
+        resize(tree);
+        return tree;
+    }
+
+    /**
+     * Joins two trees where everything in the first is ahead of everything in the second
+     */
+    private static Node merge(Node ahead, Node behind) {
+
+        if (ahead == null)
+            return behind;
+        if (behind == null)
+            return ahead;
+
+        if (ahead.priority > behind.priority) {
+            ahead.right = merge(ahead.right, behind);
+            resize(ahead);
+            return ahead;
+        }
+
+        behind.left = merge(ahead, behind.left);
+        resize(behind);
+        return behind;
+    }
+}
@@ -0,0 +1,76 @@
+package me.devvy.leveled.profile;
+
+import java.util.UUID;
+
+/**
+ * The stats we show in /stats for a player that isn't online, as of the last time they were indexed
+ */
+public final class OfflineStats {
+
+    private final UUID id;
+    private final String name;
+    private final int level;
+    private final long totalExperience;
+    private final int defense;
+    private final int fireDefense;
+    private final int explosionDefense;
+    private final int projectileDefense;
+    private final double maxHealth;
+    private final long lastSeen;
+
+    public OfflineStats(UUID id, String name, int level, long totalExperience, int defense, int fireDefense, int explosionDefense, int projectileDefense, double maxHealth, long lastSeen) {
+        this.id = id;
+        this.name = name;
+        this.level = level;
+        this.totalExperience = totalExperience;
+        this.defense = defense;
+        this.fireDefense = fireDefense;
+        this.explosionDefense = explosionDefense;
+        this.projectileDefense = projectileDefense;
+        this.maxHealth = maxHealth;
+        this.lastSeen = lastSeen;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public long getTotalExperience() {
+        return totalExperience;
+    }
+
+    public int getDefense() {
+        return defense;
+    }
+
+    public int getFireDefense() {
+        return fireDefense;
+    }
+
+    public int getExplosionDefense() {
+        return explosionDefense;
+    }
+
+    public int getProjectileDefense() {
+        return projectileDefense;
+    }
+
+    public double getMaxHealth() {
+        return maxHealth;
+    }
+
+    /**
+     * @return When the player was last indexed in milliseconds since the epoch
+     */
+    public long getLastSeen() {
+        return lastSeen;
+    }
+}
@@ -0,0 +1,220 @@
+package me.devvy.leveled.profile;
+
+import me.devvy.leveled.player.LeveledPlayer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * A memory mapped file with one fixed size record per player holding what /stats shows, so we can show stats for
+ * players that are offline without loading their playerdata. Records are read and written straight through the
+ * mapping, the OS takes care of getting them onto the disk.
+ *
+ * Lookups by UUID or name go through maps that are built once when the index is opened, so finding a player is O(1)
+ */
+public class OfflineStatsIndex {
+
+    private static final int FILE_MAGIC = 0x4C565358;  // "LVSX"
+    private static final int FILE_VERSION = 1;
+    private static final int HEADER_BYTES = 16;  // magic, version, record count, unused
+    private static final int COUNT_OFFSET = 8;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Layout of a record, names are at most 16 characters
+    private static final int RECORD_BYTES = 80;
+    private static final int ID_MOST_OFFSET = 0;
+    private static final int ID_LEAST_OFFSET = 8;
+    private static final int TOTAL_EXPERIENCE_OFFSET = 16;
+    private static final int MAX_HEALTH_OFFSET = 24;
+    private static final int LAST_SEEN_OFFSET = 32;
+    private static final int LEVEL_OFFSET = 40;
+    private static final int DEFENSE_OFFSET = 44;
+    private static final int FIRE_DEFENSE_OFFSET = 48;
+    private static final int EXPLOSION_DEFENSE_OFFSET = 52;
+    private static final int PROJECTILE_DEFENSE_OFFSET = 56;
+    private static final int NAME_LENGTH_OFFSET = 60;
+    private static final int NAME_OFFSET = 61;
+    private static final int MAX_NAME_LENGTH = 16;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int count;
+
+    private final HashMap<UUID, Integer> slotsById;
+    private final HashMap<String, Integer> slotsByName;
+
+    public OfflineStatsIndex(File indexFile) throws IOException {
+        this.file = new RandomAccessFile(indexFile, "rw");
+        this.channel = file.getChannel();
+        this.slotsById = new HashMap<>();
+        this.slotsByName = new HashMap<>();
+
+        boolean isNew = channel.size() == 0;
+        capacity = isNew ? INITIAL_CAPACITY : (int) ((channel.size() - HEADER_BYTES) / RECORD_BYTES);
+        map();
+
+        if (isNew) {
+            buffer.putInt(0, FILE_MAGIC);
+            buffer.putInt(4, FILE_VERSION);
+            buffer.putInt(COUNT_OFFSET, 0);
+            count = 0;
+            return;
+        }
+
+        if (buffer.getInt(0) != FILE_MAGIC || buffer.getInt(4) != FILE_VERSION)
+            throw new IOException(indexFile + " is not a stats index we know how to read");
+
+        count = Math.min(buffer.getInt(COUNT_OFFSET), capacity);
+        for (int slot = 0; slot < count; slot++) {
+            slotsById.put(readId(slot), slot);
+            slotsByName.put(readName(slot).toLowerCase(Locale.ROOT), slot);
+        }
+    }
+
+    private void map() throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * RECORD_BYTES);
+    }
+
+    private static int offset(int slot) {
+        return HEADER_BYTES + slot * RECORD_BYTES;
+    }
+
+    private UUID readId(int slot) {
+        int offset = offset(slot);
+        return new UUID(buffer.getLong(offset + ID_MOST_OFFSET), buffer.getLong(offset + ID_LEAST_OFFSET));
+    }
+
+    private String readName(int slot) {
+        int offset = offset(slot);
+        byte[] name = new byte[Math.min(buffer.get(offset + NAME_LENGTH_OFFSET) & 0xFF, MAX_NAME_LENGTH)];
+        for (int i = 0; i < name.length; i++)
+            name[i] = buffer.get(offset + NAME_OFFSET + i);
+        return new String(name, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Writes a player's current stats into the index
+     *
+     * @param leveledPlayer The player to index
+     */
+    public void update(LeveledPlayer leveledPlayer) {
+
+        UUID id = leveledPlayer.getSpigotPlayer().getUniqueId();
+        String name = leveledPlayer.getSpigotPlayer().getName();
+
+        Integer slot = slotsById.get(id);
+        if (slot == null) {
+            if (count == capacity && !grow())
+                return;
+            slot = count;
+        } else
+            slotsByName.remove(readName(slot).toLowerCase(Locale.ROOT), slot);  // In case they changed their name, unless someone else has the old name now
+
+        int offset = offset(slot);
+        buffer.putLong(offset + ID_MOST_OFFSET, id.getMostSignificantBits());
+        buffer.putLong(offset + ID_LEAST_OFFSET, id.getLeastSignificantBits());
+        buffer.putLong(offset + TOTAL_EXPERIENCE_OFFSET, leveledPlayer.getExperience().getTotalExperience());
+        buffer.putDouble(offset + MAX_HEALTH_OFFSET, leveledPlayer.getCombatProfile().getMaxHealth());
+        buffer.putLong(offset + LAST_SEEN_OFFSET, System.currentTimeMillis());
+        buffer.putInt(offset + LEVEL_OFFSET, leveledPlayer.getExperience().getLevel());
+        buffer.putInt(offset + DEFENSE_OFFSET, leveledPlayer.getDefense());
+        buffer.putInt(offset + FIRE_DEFENSE_OFFSET, leveledPlayer.getFireDefense());
+        buffer.putInt(offset + EXPLOSION_DEFENSE_OFFSET, leveledPlayer.getExplosionDefense());
+        buffer.putInt(offset + PROJECTILE_DEFENSE_OFFSET, leveledPlayer.getProjectileDefense());
+
+        byte[] nameBytes = name.getBytes(StandardCharsets.US_ASCII);
+        int nameLength = Math.min(nameBytes.length, MAX_NAME_LENGTH);
+        buffer.put(offset + NAME_LENGTH_OFFSET, (byte) nameLength);
+        for (int i = 0; i < nameLength; i++)
+            buffer.put(offset + NAME_OFFSET + i, nameBytes[i]);
+
+        // Only count a new record once all of it is written
+        if (slot == count)
+            buffer.putInt(COUNT_OFFSET, ++count);
+
+        slotsById.put(id, slot);
+        slotsByName.put(name.toLowerCase(Locale.ROOT), slot);
+    }
+
+    /**
+     * Doubles the size of the file when we run out of room
+     *
+     * @return false if the file couldn't be grown
+     */
+    private boolean grow() {
+        try {
+            buffer.force();
+            capacity *= 2;
+            map();
+            return true;
+        } catch (IOException e) {
+            capacity /= 2;
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Gets the indexed stats of a player
+     *
+     * @param id The UUID of the player
+     * @return Their stats, null if they have never been indexed
+     */
+    public OfflineStats getStats(UUID id) {
+        Integer slot = slotsById.get(id);
+        return slot != null ? read(slot) : null;
+    }
+
+    /**
+     * Gets the indexed stats of a player by name, ignoring case
+     *
+     * @param name The name the player had when they were last indexed
+     * @return Their stats, null if nobody with that name has been indexed
+     */
+    public OfflineStats getStats(String name) {
+        Integer slot = slotsByName.get(name.toLowerCase(Locale.ROOT));
+        return slot != null ? read(slot) : null;
+    }
+
+    private OfflineStats read(int slot) {
+        int offset = offset(slot);
+        return new OfflineStats(
+                readId(slot),
+                readName(slot),
+                buffer.getInt(offset + LEVEL_OFFSET),
+                buffer.getLong(offset + TOTAL_EXPERIENCE_OFFSET),
+                buffer.getInt(offset + DEFENSE_OFFSET),
+                buffer.getInt(offset + FIRE_DEFENSE_OFFSET),
+                buffer.getInt(offset + EXPLOSION_DEFENSE_OFFSET),
+                buffer.getInt(offset + PROJECTILE_DEFENSE_OFFSET),
+                buffer.getDouble(offset + MAX_HEALTH_OFFSET),
+                buffer.getLong(offset + LAST_SEEN_OFFSET)
+        );
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Makes sure everything is on the disk and closes the file
+     */
+    public void close() {
+        try {
+            buffer.force();
+            channel.close();
+            file.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package me.devvy.leveled.profile;
+
+import me.devvy.leveled.player.ExperienceSource;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * An immutable snapshot of everything we keep about a player between sessions. The main thread builds one of these
+ * and hands it to the ProfileStore, which writes it to disk on its own thread
+ */
+public final class PlayerProfile {
+
+    // Bump this if the record format changes, and keep reading the old versions
+    private static final byte RECORD_VERSION = 1;
+
+    private final UUID id;
+    private final long totalExperience;
+    private final int numDowns;
+    private final long lastSeen;
+    private final long[] experienceBySource;
+
+    public PlayerProfile(UUID id, long totalExperience, int numDowns, long lastSeen, long[] experienceBySource) {
+        this.id = id;
+        this.totalExperience = totalExperience;
+        this.numDowns = numDowns;
+        this.lastSeen = lastSeen;
+        this.experienceBySource = Arrays.copyOf(experienceBySource, ExperienceSource.values().length);
+    }
+
+    /**
+     * @param id The UUID of the player
+     * @return A profile for a player that has never been saved before
+     */
+    public static PlayerProfile createEmpty(UUID id) {
+        return new PlayerProfile(id, 0, 0, 0, new long[0]);
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public long getTotalExperience() {
+        return totalExperience;
+    }
+
+    public int getNumDowns() {
+        return numDowns;
+    }
+
+    /**
+     * @return The time this profile was saved in milliseconds since the epoch
+     */
+    public long getLastSeen() {
+        return lastSeen;
+    }
+
+    public long getExperienceEarned(ExperienceSource source) {
+        return experienceBySource[source.ordinal()];
+    }
+
+    /**
+     * Writes this profile in our binary record format
+     *
+     * @param out Where to write the record
+     * @throws IOException If the underlying stream fails
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeByte(RECORD_VERSION);
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+        out.writeLong(totalExperience);
+        out.writeInt(numDowns);
+        out.writeLong(lastSeen);
+        out.writeByte(experienceBySource.length);
+        for (long amount : experienceBySource)
+            out.writeLong(amount);
+    }
+
+    /**
+     * Reads a profile that was written with write()
+     *
+     * @param in Where to read the record from
+     * @return The profile that was read
+     * @throws IOException If the record is from a version we don't understand or the stream fails
+     */
+    public static PlayerProfile read(DataInput in) throws IOException {
+
+        byte version = in.readByte();
+        if (version != RECORD_VERSION)
+            throw new IOException("Unknown player profile record version " + version);
+
+        UUID id = new UUID(in.readLong(), in.readLong());
+        long totalExperience = in.readLong();
+        int numDowns = in.readInt();
+        long lastSeen = in.readLong();
+
+        // Sources may have been added or removed since this was written, only keep the ones we still know about
+        int numSources = in.readUnsignedByte();
+        long[] experienceBySource = new long[ExperienceSource.values().length];
+        for (int i = 0; i < numSources; i++) {
+            long amount = in.readLong();
+            if (i < experienceBySource.length)
+                experienceBySource[i] = amount;
+        }
+
+        return new PlayerProfile(id, totalExperience, numDowns, lastSeen, experienceBySource);
+    }
+}
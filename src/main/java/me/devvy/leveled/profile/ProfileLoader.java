@@ -0,0 +1,154 @@
+package me.devvy.leveled.profile;
+
+import me.devvy.leveled.Leveled;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gets a player's profile ready while they are still logging in, so that everything that runs when they join just
+ * picks up an object that is already built instead of going to the profile store.
+ *
+ * Profiles are fetched on the async pre login thread. They stay cached while the player is online and for a little
+ * while after they leave, so someone who disconnects and comes right back doesn't need anything fetched at all
+ */
+public class ProfileLoader implements Listener {
+
+    // How long we hang onto a profile for a login that never turned into a join (another plugin kicked them etc)
+    private static final long UNCLAIMED_EXPIRY_MILLIS = 60 * 1000;
+    // How long we hang onto a profile after someone leaves in case they reconnect TODO: make config option
+    private static final long RECONNECT_EXPIRY_MILLIS = 5 * 60 * 1000;
+    private static final int CLEANUP_INTERVAL_TICKS = 20 * 30;
+
+    private final ProfileStore store;
+    private final ConcurrentHashMap<UUID, CachedProfile> cache;
+
+    // Counted from both the login thread and the main thread
+    private final AtomicLong prefetches = new AtomicLong();
+    private final AtomicLong reconnectHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private static class CachedProfile {
+
+        private final PlayerProfile profile;
+        private volatile long expiresAt;
+
+        private CachedProfile(PlayerProfile profile, long expiresAt) {
+            this.profile = profile;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private class CleanupTask extends BukkitRunnable {
+
+        @Override
+        public void run() {
+            long now = System.currentTimeMillis();
+            Iterator<CachedProfile> iterator = cache.values().iterator();
+            while (iterator.hasNext())
+                if (iterator.next().expiresAt <= now)
+                    iterator.remove();
+        }
+    }
+
+    public ProfileLoader(Leveled plugin, ProfileStore store) {
+        this.store = store;
+        this.cache = new ConcurrentHashMap<>();
+
+        // Anyone already online (a reload) never went through pre login, so grab theirs now
+        for (Player player : plugin.getServer().getOnlinePlayers())
+            cache.put(player.getUniqueId(), new CachedProfile(fetch(player.getUniqueId()), Long.MAX_VALUE));
+
+        new CleanupTask().runTaskTimer(plugin, CLEANUP_INTERVAL_TICKS, CLEANUP_INTERVAL_TICKS);
+    }
+
+    private PlayerProfile fetch(UUID id) {
+        PlayerProfile profile = store.getProfile(id);
+        return profile != null ? profile : PlayerProfile.createEmpty(id);
+    }
+
+    /**
+     * Gets the profile that was prepared for a player when they logged in. Only call this on the main thread
+     *
+     * @param player The player to get the profile of
+     * @return Their profile, an empty one if they have never been saved before
+     */
+    public PlayerProfile getProfile(Player player) {
+
+        CachedProfile cached = cache.get(player.getUniqueId());
+        if (cached != null)
+            return cached.profile;
+
+        // Should only happen if something joins players without a login, fetch it the slow way
+        misses.incrementAndGet();
+        PlayerProfile profile = fetch(player.getUniqueId());
+        cache.put(player.getUniqueId(), new CachedProfile(profile, Long.MAX_VALUE));
+        return profile;
+    }
+
+    /**
+     * @return How many profiles were fetched ahead of time during login
+     */
+    public long getPrefetches() {
+        return prefetches.get();
+    }
+
+    /**
+     * @return How many logins didn't need a fetch because the player had only just left
+     */
+    public long getReconnectHits() {
+        return reconnectHits.get();
+    }
+
+    /**
+     * @return How many times a profile was asked for that wasn't prepared ahead of time
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED)
+            return;
+
+        UUID id = event.getUniqueId();
+        CachedProfile cached = cache.get(id);
+        if (cached != null) {
+            cached.expiresAt = System.currentTimeMillis() + UNCLAIMED_EXPIRY_MILLIS;
+            reconnectHits.incrementAndGet();
+            return;
+        }
+
+        cache.put(id, new CachedProfile(fetch(id), System.currentTimeMillis() + UNCLAIMED_EXPIRY_MILLIS));
+        prefetches.incrementAndGet();
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+
+        // They are online now, so keep it around until they leave
+        CachedProfile cached = cache.get(event.getPlayer().getUniqueId());
+        if (cached != null)
+            cached.expiresAt = Long.MAX_VALUE;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+
+        // They were saved on their way out, keep that copy in case they come right back
+        UUID id = event.getPlayer().getUniqueId();
+        cache.put(id, new CachedProfile(fetch(id), System.currentTimeMillis() + RECONNECT_EXPIRY_MILLIS));
+    }
+}
@@ -0,0 +1,379 @@
+package me.devvy.leveled.profile;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps every player's profile on disk without ever touching the disk on the main thread.
+ *
+ * All profiles live in memory, so reads are just a map lookup. When the main thread saves a profile it goes into the
+ * map and onto a queue, and a writer thread appends everything queued to a journal in batches. The journal is synced
+ * to disk every so often, and once it gets big enough it is compacted into the data file which holds one record per
+ * player. If the server crashes we load the data file and replay whatever made it into the journal after it.
+ *
+ * Every record is written as [sequence][length][record][crc], so a half written record at the end of the journal is
+ * detected and thrown away instead of loading garbage
+ */
+public class ProfileStore {
+
+    // Used when profiles.sync-interval-millis is missing from the config
+    public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 5000;
+
+    private static final int DATA_FILE_MAGIC = 0x4C56504C;  // "LVPL"
+    private static final int DATA_FILE_VERSION = 1;
+    private static final long JOURNAL_COMPACT_BYTES = 4 * 1024 * 1024;
+    private static final int MAX_RECORD_BYTES = 64 * 1024;
+    private static final int RECORD_OVERHEAD_BYTES = 8 + 4 + 4;  // sequence, length and crc
+
+    private static class PendingWrite {
+
+        private final long sequence;
+        private final PlayerProfile profile;
+
+        private PendingWrite(long sequence, PlayerProfile profile) {
+            this.sequence = sequence;
+            this.profile = profile;
+        }
+    }
+
+    // Put on the queue to tell the writer thread to finish up
+    private static final PendingWrite SHUTDOWN = new PendingWrite(-1, null);
+
+    private final Logger logger;
+    private final File dataFile;
+    private final File tempFile;
+    private final File journalFile;
+    private final long syncIntervalMillis;
+
+    private final ConcurrentHashMap<UUID, PlayerProfile> profiles;
+    private final LinkedBlockingQueue<PendingWrite> writeQueue;
+    private final Thread writerThread;
+    private long sequence;
+    private boolean closed;
+
+    // Only touched by the writer thread after construction
+    private FileOutputStream journalStream;
+    private DataOutputStream journalOut;
+    private long journalBytes;
+
+    public ProfileStore(File folder, Logger logger, long syncIntervalMillis) throws IOException {
+        this.logger = logger;
+        this.dataFile = new File(folder, "profiles.dat");
+        this.tempFile = new File(folder, "profiles.dat.tmp");
+        this.journalFile = new File(folder, "profiles.journal");
+        this.syncIntervalMillis = syncIntervalMillis;
+        this.profiles = new ConcurrentHashMap<>();
+        this.writeQueue = new LinkedBlockingQueue<>();
+
+        if (!folder.isDirectory() && !folder.mkdirs())
+            throw new IOException("Could not create " + folder);
+
+        long compactedThrough = loadDataFile();
+        replayJournal(compactedThrough);
+        openJournal(true);
+
+        writerThread = new Thread(this::runWriter, "Leveled Profile Writer");
+        writerThread.start();
+    }
+
+    /**
+     * Gets the last profile saved for a player, safe to call from any thread
+     *
+     * @param id The UUID of the player
+     * @return Their profile, null if we have never saved one for them
+     */
+    public PlayerProfile getProfile(UUID id) {
+        return profiles.get(id);
+    }
+
+    /**
+     * @return Every profile we know about, including players that are offline
+     */
+    public Collection<PlayerProfile> getProfiles() {
+        return profiles.values();
+    }
+
+    /**
+     * Saves a profile. It is visible to getProfile right away and written to disk in the background
+     *
+     * @param profile The profile to save
+     */
+    public synchronized void save(PlayerProfile profile) {
+
+        if (closed)
+            return;
+
+        profiles.put(profile.getId(), profile);
+        writeQueue.add(new PendingWrite(++sequence, profile));
+    }
+
+    /**
+     * Writes everything still queued, syncs it to disk and stops the writer thread. Blocks until that is done, so
+     * only call it when the plugin is shutting down
+     */
+    public void close() {
+
+        synchronized (this) {
+            if (closed)
+                return;
+            closed = true;
+        }
+
+        writeQueue.add(SHUTDOWN);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWriter() {
+
+        ArrayList<PendingWrite> batch = new ArrayList<>();
+        long lastSync = System.currentTimeMillis();
+        boolean unsynced = false;
+        boolean running = true;
+
+        while (running) {
+
+            try {
+                PendingWrite first = writeQueue.poll(Math.max(1, lastSync + syncIntervalMillis - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    writeQueue.drainTo(batch);
+                }
+            } catch (InterruptedException ignored) {
+                // Nothing interrupts us on purpose, just keep going until we are told to shut down
+            }
+
+            try {
+
+                for (PendingWrite write : batch) {
+                    if (write == SHUTDOWN)
+                        running = false;
+                    else {
+                        appendToJournal(write);
+                        unsynced = true;
+                    }
+                }
+                batch.clear();
+
+                // If there is nothing to sync, the next interval starts from now
+                if (!unsynced)
+                    lastSync = System.currentTimeMillis();
+                else if (!running || System.currentTimeMillis() - lastSync >= syncIntervalMillis) {
+                    syncJournal();
+                    unsynced = false;
+                    lastSync = System.currentTimeMillis();
+                }
+
+                if (!running || journalBytes >= JOURNAL_COMPACT_BYTES)
+                    compact();
+
+            } catch (IOException e) {
+                // Whatever we couldn't write is still in memory, and will go out with the next compaction if we get one
+                logger.log(Level.SEVERE, "Failed to write player profiles to disk", e);
+                batch.clear();
+            }
+        }
+
+        try {
+            journalOut.close();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to close the player profile journal", e);
+        }
+    }
+
+    private void appendToJournal(PendingWrite write) throws IOException {
+        byte[] record = encode(write.profile);
+        writeRecord(journalOut, write.sequence, record);
+        journalBytes += RECORD_OVERHEAD_BYTES + record.length;
+    }
+
+    private void syncJournal() throws IOException {
+        journalOut.flush();
+        journalStream.getFD().sync();
+    }
+
+    /**
+     * Writes every profile into a new data file, swaps it in and empties the journal. The data file remembers the
+     * newest sequence it contains so that if we crash before the journal is emptied, replaying it is harmless
+     */
+    private void compact() throws IOException {
+
+        long compactedThrough;
+        ArrayList<PlayerProfile> snapshot;
+        synchronized (this) {
+            compactedThrough = sequence;
+            snapshot = new ArrayList<>(profiles.values());
+        }
+
+        try (FileOutputStream stream = new FileOutputStream(tempFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+
+            out.writeInt(DATA_FILE_MAGIC);
+            out.writeInt(DATA_FILE_VERSION);
+            out.writeLong(compactedThrough);
+            out.writeInt(snapshot.size());
+            for (PlayerProfile profile : snapshot)
+                writeRecord(out, compactedThrough, encode(profile));
+
+            out.flush();
+            stream.getFD().sync();
+        }
+
+        Files.move(tempFile.toPath(), dataFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        journalOut.close();
+        openJournal(false);
+    }
+
+    private void openJournal(boolean append) throws IOException {
+        journalStream = new FileOutputStream(journalFile, append);
+        journalOut = new DataOutputStream(new BufferedOutputStream(journalStream));
+        journalBytes = append ? journalFile.length() : 0;
+    }
+
+    /**
+     * Loads every profile in the data file
+     *
+     * @return The newest sequence number the data file contains, 0 if there is no data file
+     */
+    private long loadDataFile() throws IOException {
+
+        if (!dataFile.exists())
+            return 0;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(dataFile)))) {
+
+            if (in.readInt() != DATA_FILE_MAGIC)
+                throw new IOException(dataFile + " is not a player profile file");
+
+            int version = in.readInt();
+            if (version != DATA_FILE_VERSION)
+                throw new IOException("Unknown player profile file version " + version);
+
+            long compactedThrough = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                in.readLong();  // Every record in here has the same sequence as the header
+                byte[] record = readRecord(in);
+                if (record == null)
+                    throw new IOException(dataFile + " is corrupted, record " + i + " of " + count + " is unreadable");
+
+                PlayerProfile profile = decode(record);
+                profiles.put(profile.getId(), profile);
+            }
+
+            sequence = compactedThrough;
+            return compactedThrough;
+        }
+    }
+
+    /**
+     * Applies everything in the journal that is newer than the data file, stopping at the first record that didn't
+     * make it to disk in one piece
+     *
+     * @param compactedThrough The newest sequence number already in the data file
+     */
+    private void replayJournal(long compactedThrough) throws IOException {
+
+        if (!journalFile.exists())
+            return;
+
+        int replayed = 0;
+        long validBytes = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)))) {
+
+            while (true) {
+
+                long recordSequence;
+                try {
+                    recordSequence = in.readLong();
+                } catch (EOFException e) {
+                    break;
+                }
+
+                byte[] record = readRecord(in);
+                if (record == null) {
+                    logger.warning("The player profile journal ends with an incomplete record, it was probably being written when the server stopped. Ignoring it");
+                    break;
+                }
+
+                validBytes += RECORD_OVERHEAD_BYTES + record.length;
+                if (recordSequence <= compactedThrough)
+                    continue;
+
+                PlayerProfile profile = decode(record);
+                profiles.put(profile.getId(), profile);
+                sequence = Math.max(sequence, recordSequence);
+                replayed++;
+            }
+        }
+
+        // Cut off anything we couldn't read, otherwise new records would be appended after it and never be reachable
+        if (validBytes < journalFile.length())
+            try (RandomAccessFile journal = new RandomAccessFile(journalFile, "rw")) {
+                journal.setLength(validBytes);
+            }
+
+        if (replayed > 0)
+            logger.info("Recovered " + replayed + " player profile changes from the journal");
+    }
+
+    private static byte[] encode(PlayerProfile profile) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        profile.write(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static PlayerProfile decode(byte[] record) throws IOException {
+        return PlayerProfile.read(new DataInputStream(new ByteArrayInputStream(record)));
+    }
+
+    private static void writeRecord(DataOutputStream out, long recordSequence, byte[] record) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        out.writeLong(recordSequence);
+        out.writeInt(record.length);
+        out.write(record);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * Reads the rest of a record after its sequence number
+     *
+     * @return The bytes of the record, null if the record is cut off or doesn't match its checksum
+     */
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+
+        try {
+            int length = in.readInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES)
+                return null;
+
+            byte[] record = new byte[length];
+            in.readFully(record);
+            int expectedCrc = in.readInt();
+
+            CRC32 crc = new CRC32();
+            crc.update(record);
+            if ((int) crc.getValue() != expectedCrc)
+                return null;
+
+            return record;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+}
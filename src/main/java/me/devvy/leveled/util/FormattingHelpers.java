@@ -4,10 +4,19 @@ import java.text.NumberFormat;
 
 public class FormattingHelpers {
 
-    public static String getFormattedInteger(int num){
+    // Making a NumberFormat is a lot more work than using one, and they aren't thread safe so each thread gets its own
+    private static final ThreadLocal<NumberFormat> INTEGER_FORMAT = ThreadLocal.withInitial(() -> {
         NumberFormat nf = NumberFormat.getNumberInstance();
         nf.setGroupingUsed(true);
-        return nf.format(num);
+        return nf;
+    });
+
+    public static String getFormattedInteger(int num){
+        return INTEGER_FORMAT.get().format(num);
+    }
+
+    public static String getFormattedInteger(long num){
+        return INTEGER_FORMAT.get().format(num);
     }
 
 }